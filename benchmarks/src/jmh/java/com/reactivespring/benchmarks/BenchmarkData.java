@@ -0,0 +1,32 @@
+package com.reactivespring.benchmarks;
+
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static MovieInfo movieInfo(String movieInfoId) {
+        return new MovieInfo(movieInfoId, "Batman Begins", 2005,
+                List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+    }
+
+    static List<Review> reviews(long movieInfoId, int reviewCount) {
+        return IntStream.range(0, reviewCount)
+                .mapToObj(i -> new Review("review-" + i, movieInfoId,
+                        "Review number " + i + " of an awesome movie", (double) (i % 10)))
+                .collect(Collectors.toList());
+    }
+
+    static Movie movie(int reviewCount) {
+        return new Movie(movieInfo("1"), reviews(1L, reviewCount));
+    }
+}
@@ -0,0 +1,70 @@
+package com.reactivespring.benchmarks;
+
+import com.reactivespring.metrics.DownstreamMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DownstreamMetricsBenchmark {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @Param({"1", "16"})
+    private int chunks;
+
+    private ClientRequest request;
+    private ExchangeFunction exchange;
+    private ExchangeFunction instrumentedExchange;
+
+    // an in-memory backend answering with the body in chunks of 1KB, so the difference between the two benchmarks is
+    // the filter alone: the timer lookup, the byte count per buffer and the histogram updates
+    @Setup
+    public void setUp() {
+        var chunk = "x".repeat(CHUNK_SIZE).getBytes(StandardCharsets.UTF_8);
+        var strategies = ExchangeStrategies.withDefaults();
+        request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/v1/reviews?movieInfoId=1")).build();
+        exchange = clientRequest -> Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK, strategies)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                .body(Flux.range(0, chunks).map(index -> DefaultDataBufferFactory.sharedInstance.wrap(chunk)))
+                .build());
+        instrumentedExchange = exchange.filter(new DownstreamMetrics(new SimpleMeterRegistry()).instrument("reviews"));
+    }
+
+    @Benchmark
+    public String baseline() {
+        return exchange.exchange(request)
+                .flatMap(response -> response.bodyToMono(String.class))
+                .block();
+    }
+
+    @Benchmark
+    public String instrumented() {
+        return instrumentedExchange.exchange(request)
+                .flatMap(response -> response.bodyToMono(String.class))
+                .block();
+    }
+}
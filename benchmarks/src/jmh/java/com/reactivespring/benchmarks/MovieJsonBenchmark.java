@@ -0,0 +1,46 @@
+package com.reactivespring.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MovieJsonBenchmark {
+
+    @Param({"0", "10", "100", "1000"})
+    private int reviewCount;
+
+    private ObjectMapper objectMapper;
+    private Movie movie;
+    private byte[] movieJson;
+
+    // same modules and features as the ObjectMapper Spring Boot gives the WebFlux codecs
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        movie = BenchmarkData.movie(reviewCount);
+        movieJson = objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public Movie decode() throws Exception {
+        return objectMapper.readValue(movieJson, Movie.class);
+    }
+}
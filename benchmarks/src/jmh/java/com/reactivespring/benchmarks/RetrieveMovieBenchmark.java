@@ -0,0 +1,61 @@
+package com.reactivespring.benchmarks;
+
+import com.reactivespring.MoviesServiceApplication;
+import com.reactivespring.controller.MoviesController;
+import com.reactivespring.domain.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RetrieveMovieBenchmark {
+
+    private static final String MOVIE_ID = "1";
+
+    @Param({"10", "100"})
+    private int reviewCount;
+
+    @Param({"CONCURRENT", "SEQUENTIAL"})
+    private String aggregationMode;
+
+    private StubBackend stubBackend;
+    private ConfigurableApplicationContext applicationContext;
+    private MoviesController moviesController;
+
+    @Setup
+    public void setUp() throws Exception {
+        stubBackend = StubBackend.start(MOVIE_ID, reviewCount);
+        applicationContext = new SpringApplicationBuilder(MoviesServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--restClient.moviesInfoUrl=" + stubBackend.moviesInfoUrl(),
+                        "--restClient.reviewsUrl=" + stubBackend.reviewsUrl(),
+                        "--restClient.moviesInfoCache.enabled=false",
+                        "--movies.aggregation.mode=" + aggregationMode,
+                        "--logging.level.root=WARN");
+        moviesController = applicationContext.getBean(MoviesController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+        stubBackend.close();
+    }
+
+    @Benchmark
+    public Movie retrieveMovieById() {
+        return moviesController.retrieveMovieById(MOVIE_ID).block();
+    }
+}
@@ -0,0 +1,66 @@
+package com.reactivespring.benchmarks;
+
+import com.reactivespring.exception.ReviewsServerException;
+import com.reactivespring.resilience.ResilienceProperties;
+import com.reactivespring.resilience.RetryBudget;
+import com.reactivespring.util.RetryUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RetryUtilsBenchmark {
+
+    private Retry retrySpec;
+
+    // zero backoff and an effectively unlimited budget, so only the operator cost is measured
+    @Setup
+    public void setUp() {
+        var retryProperties = new ResilienceProperties.RetryProperties();
+        retryProperties.setFirstBackoff(Duration.ZERO);
+        retryProperties.setMaxBackoff(Duration.ZERO);
+        var retryBudget = new RetryBudget(Double.MAX_VALUE, Double.MAX_VALUE);
+        retrySpec = RetryUtils.retrySpec(retryProperties, retryBudget, outcome -> {
+        });
+    }
+
+    @Benchmark
+    public String baseline() {
+        return Mono.just("review").block();
+    }
+
+    @Benchmark
+    public String withRetrySpec() {
+        return Mono.just("review")
+                .retryWhen(retrySpec)
+                .block();
+    }
+
+    @Benchmark
+    public String withOneRetry() {
+        var attempts = new AtomicInteger();
+        return Mono.fromCallable(() -> {
+                    if (attempts.getAndIncrement() == 0) throw new ReviewsServerException("transient");
+                    return "review";
+                })
+                .retryWhen(retrySpec)
+                .block();
+    }
+
+    @Benchmark
+    public boolean fullJitterBackoff() {
+        return RetryUtils.fullJitterBackoff(2, new ResilienceProperties.RetryProperties()).isNegative();
+    }
+}
@@ -0,0 +1,72 @@
+package com.reactivespring.benchmarks;
+
+import com.reactivespring.MoviesServiceApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReviewPassThroughBenchmark {
+
+    private static final String MOVIE_ID = "1";
+
+    @Param({"10", "100", "1000"})
+    private int reviewCount;
+
+    private StubBackend stubBackend;
+    private ConfigurableApplicationContext applicationContext;
+    private HttpClient httpClient;
+
+    // over real HTTP, because the point is what happens between the backend's bytes and ours;
+    // the gc profiler's alloc.rate.norm shows the garbage each path leaves per request
+    @Setup
+    public void setUp() throws Exception {
+        stubBackend = StubBackend.start(MOVIE_ID, reviewCount);
+        applicationContext = new SpringApplicationBuilder(MoviesServiceApplication.class)
+                .run("--server.port=0",
+                        "--restClient.moviesInfoUrl=" + stubBackend.moviesInfoUrl(),
+                        "--restClient.reviewsUrl=" + stubBackend.reviewsUrl(),
+                        "--restClient.moviesInfoCache.enabled=false",
+                        "--logging.level.root=WARN");
+        var port = applicationContext.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.create().baseUrl("http://localhost:" + port);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+        stubBackend.close();
+    }
+
+    @Benchmark
+    public byte[] decodeAndEncode() {
+        return get("/v1/movies/" + MOVIE_ID);
+    }
+
+    @Benchmark
+    public byte[] passThrough() {
+        return get("/v1/movies/" + MOVIE_ID + "/raw");
+    }
+
+    private byte[] get(String uri) {
+        return httpClient.get()
+                .uri(uri)
+                .responseContent()
+                .aggregate()
+                .asByteArray()
+                .block();
+    }
+}
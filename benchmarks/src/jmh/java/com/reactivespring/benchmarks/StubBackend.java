@@ -0,0 +1,50 @@
+package com.reactivespring.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// both backends served from pre-encoded bytes, so benchmarks only measure the movies-service side
+final class StubBackend implements AutoCloseable {
+
+    private final DisposableServer server;
+
+    private StubBackend(DisposableServer server) {
+        this.server = server;
+    }
+
+    static StubBackend start(String movieId, int reviewCount) throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var movieInfoJson = objectMapper.writeValueAsBytes(BenchmarkData.movieInfo(movieId));
+        var reviewsJson = objectMapper.writeValueAsBytes(BenchmarkData.reviews(Long.parseLong(movieId), reviewCount));
+
+        var server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/v1/movieinfos/{id}", (request, response) -> response
+                                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendByteArray(Mono.just(movieInfoJson)))
+                        .get("/v1/reviews", (request, response) -> response
+                                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendByteArray(Mono.just(reviewsJson))))
+                .bindNow();
+        return new StubBackend(server);
+    }
+
+    String moviesInfoUrl() {
+        return "http://localhost:" + server.port() + "/v1/movieinfos";
+    }
+
+    String reviewsUrl() {
+        return "http://localhost:" + server.port() + "/v1/reviews";
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,88 @@
+package com.reactivespring.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<Review>> REVIEW_LIST = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "SMILE"})
+    private String wireFormat;
+
+    @Param({"10", "100", "1000"})
+    private int reviewCount;
+
+    private ObjectMapper objectMapper;
+    private MovieInfo movieInfo;
+    private List<Review> reviews;
+    private byte[] movieInfoBytes;
+    private byte[] reviewsBytes;
+
+    // same mapper setup as the WebFlux codecs of either format
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = "SMILE".equals(wireFormat) ?
+                Jackson2ObjectMapperBuilder.smile().build() :
+                Jackson2ObjectMapperBuilder.json().build();
+        movieInfo = BenchmarkData.movieInfo("1");
+        reviews = BenchmarkData.reviews(1L, reviewCount);
+        movieInfoBytes = objectMapper.writeValueAsBytes(movieInfo);
+        reviewsBytes = objectMapper.writeValueAsBytes(reviews);
+    }
+
+    // payload sizes are reported next to the timings as the movieInfoWireBytes and reviewsWireBytes secondary results
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+
+        public long movieInfoWireBytes;
+        public long reviewsWireBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(WireFormatBenchmark benchmark) {
+            movieInfoWireBytes = benchmark.movieInfoBytes.length;
+            reviewsWireBytes = benchmark.reviewsBytes.length;
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeReviews(WireSize wireSize) throws Exception {
+        return objectMapper.writeValueAsBytes(reviews);
+    }
+
+    @Benchmark
+    public List<Review> decodeReviews(WireSize wireSize) throws Exception {
+        return objectMapper.readValue(reviewsBytes, REVIEW_LIST);
+    }
+
+    @Benchmark
+    public byte[] encodeMovieInfo(WireSize wireSize) throws Exception {
+        return objectMapper.writeValueAsBytes(movieInfo);
+    }
+
+    @Benchmark
+    public MovieInfo decodeMovieInfo(WireSize wireSize) throws Exception {
+        return objectMapper.readValue(movieInfoBytes, MovieInfo.class);
+    }
+}
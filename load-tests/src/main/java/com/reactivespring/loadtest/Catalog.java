@@ -0,0 +1,36 @@
+package com.reactivespring.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Catalog {
+
+    private final String[] movieIds;
+    private final double[] cumulativePopularity;
+
+    // movieIds are ordered from the most to the least popular movie
+    public Catalog(String[] movieIds, double popularitySkew) {
+        this.movieIds = movieIds;
+        this.cumulativePopularity = new double[movieIds.length];
+        var total = 0d;
+        for (int rank = 0; rank < movieIds.length; rank++) {
+            total += popularity(rank, popularitySkew);
+            cumulativePopularity[rank] = total;
+        }
+    }
+
+    // zipf weight of the movie at the given 0-based rank, 1.0 for the most popular one
+    public static double popularity(int rank, double popularitySkew) {
+        return 1d / Math.pow(rank + 1, popularitySkew);
+    }
+
+    public String nextMovieId() {
+        var target = ThreadLocalRandom.current().nextDouble(cumulativePopularity[cumulativePopularity.length - 1]);
+        var index = Arrays.binarySearch(cumulativePopularity, target);
+        return movieIds[index >= 0 ? index : -index - 1];
+    }
+
+    public int size() {
+        return movieIds.length;
+    }
+}
@@ -0,0 +1,110 @@
+package com.reactivespring.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class CatalogSeeder {
+
+    private static final int SEED_CONCURRENCY = 32;
+    private static final Duration SEED_TIMEOUT = Duration.ofMinutes(10);
+    private static final List<String> CAST = List.of("Christian Bale", "Michael Cane", "Heath Ledger",
+            "Gary Oldman", "Anne Hathaway", "Tom Hardy", "Cillian Murphy", "Marion Cotillard");
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final int movies;
+    private final int maxReviewsPerMovie;
+    private final double popularitySkew;
+    private final Random random;
+
+    public CatalogSeeder(HttpClient httpClient, ObjectMapper objectMapper, LoadTestProperties loadTestProperties) {
+        this.httpClient = httpClient.headers(headers ->
+                headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON));
+        this.objectMapper = objectMapper;
+        this.movies = loadTestProperties.getInt("catalog.movies");
+        this.maxReviewsPerMovie = loadTestProperties.getInt("catalog.maxReviewsPerMovie");
+        this.popularitySkew = loadTestProperties.getDouble("catalog.popularitySkew");
+        this.random = new Random(loadTestProperties.getInt("catalog.randomSeed"));
+    }
+
+    // numeric movieInfoIds, the reviews service stores them as longs; review counts follow the popularity curve
+    public Catalog seed(String moviesInfoBaseUrl, String reviewsBaseUrl) {
+        var movieInfos = new ArrayList<Map<String, Object>>();
+        var reviews = new ArrayList<Map<String, Object>>();
+        for (int rank = 0; rank < movies; rank++) {
+            var movieInfoId = rank + 1L;
+            movieInfos.add(movieInfo(movieInfoId));
+            var reviewCount = (int) Math.round(maxReviewsPerMovie * Catalog.popularity(rank, popularitySkew));
+            IntStream.range(0, reviewCount).forEach(i -> reviews.add(review(movieInfoId, i)));
+        }
+
+        Flux.concat(post(moviesInfoBaseUrl + "/v1/movieinfos", movieInfos),
+                        post(reviewsBaseUrl + "/v1/reviews", reviews))
+                .then()
+                .block(SEED_TIMEOUT);
+        System.out.printf("Seeded %d movies and %d reviews%n", movieInfos.size(), reviews.size());
+
+        var movieIds = movieInfos.stream()
+                .map(movieInfo -> String.valueOf(movieInfo.get("movieInfoId")))
+                .toArray(String[]::new);
+        return new Catalog(movieIds, popularitySkew);
+    }
+
+    private Map<String, Object> movieInfo(long movieInfoId) {
+        var releaseDate = LocalDate.of(1970, 1, 1).plusDays(random.nextInt(20_000));
+        var cast = new ArrayList<>(CAST);
+        Collections.shuffle(cast, random);
+        return Map.of(
+                "movieInfoId", String.valueOf(movieInfoId),
+                "name", "Movie " + movieInfoId,
+                "year", releaseDate.getYear(),
+                "cast", cast.subList(0, 2 + random.nextInt(4)),
+                "releaseDate", releaseDate.toString());
+    }
+
+    // ratings cluster around 3.5 in half steps, like most review sites
+    private Map<String, Object> review(long movieInfoId, int index) {
+        var rating = Math.round((3.5 + random.nextGaussian()) * 2) / 2d;
+        return Map.of(
+                "movieInfoId", movieInfoId,
+                "comment", "Review " + index + " of movie " + movieInfoId,
+                "rating", Math.max(0d, Math.min(5d, rating)));
+    }
+
+    private Mono<Void> post(String url, List<Map<String, Object>> bodies) {
+        return Flux.fromIterable(bodies)
+                .flatMap(body -> httpClient.post()
+                        .uri(url)
+                        .send(ByteBufFlux.fromString(Mono.just(toJson(body))))
+                        .responseSingle((response, content) -> content.asString()
+                                .defaultIfEmpty("")
+                                .flatMap(responseBody -> response.status().code() == 201 ?
+                                        Mono.empty() :
+                                        Mono.error(new IllegalStateException("Seeding " + url + " failed with "
+                                                + response.status() + " : " + responseBody)))), SEED_CONCURRENCY)
+                .then();
+    }
+
+    private String toJson(Map<String, Object> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+}
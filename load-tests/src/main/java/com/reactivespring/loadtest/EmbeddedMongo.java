@@ -0,0 +1,49 @@
+package com.reactivespring.loadtest;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodProcess;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class EmbeddedMongo implements AutoCloseable {
+
+    private final MongodExecutable mongodExecutable;
+    private final MongodProcess mongodProcess;
+    private final int port;
+
+    private EmbeddedMongo(MongodExecutable mongodExecutable, MongodProcess mongodProcess, int port) {
+        this.mongodExecutable = mongodExecutable;
+        this.mongodProcess = mongodProcess;
+        this.port = port;
+    }
+
+    // same mongod version the intg tests run against, so the downloaded distribution is shared
+    public static EmbeddedMongo start(int port) {
+        try {
+            var mongodConfig = MongodConfig.builder()
+                    .version(Version.V3_5_5)
+                    .net(new Net("localhost", port, Network.localhostIsIPv6()))
+                    .build();
+            var mongodExecutable = MongodStarter.getDefaultInstance().prepare(mongodConfig);
+            return new EmbeddedMongo(mongodExecutable, mongodExecutable.start(), port);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        mongodProcess.stop();
+        mongodExecutable.stop();
+    }
+}
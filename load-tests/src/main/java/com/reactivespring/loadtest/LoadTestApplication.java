@@ -0,0 +1,143 @@
+package com.reactivespring.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+public class LoadTestApplication {
+
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        var loadTestProperties = LoadTestProperties.load();
+        var violations = new LoadTestApplication().run(loadTestProperties);
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.err.println("SLO violated : " + violation));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    public List<String> run(LoadTestProperties loadTestProperties) throws IOException {
+        var objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        var reportDir = loadTestProperties.getPath("reportDir");
+        var startupTimeout = loadTestProperties.getDuration("startupTimeout");
+        var jvmArgs = loadTestProperties.getList("serviceJvmArgs");
+        var backendArgs = List.of("--spring.data.mongodb.host=localhost",
+                "--spring.data.mongodb.database=loadtest",
+                "--logging.level.root=WARN");
+
+        try (var mongo = EmbeddedMongo.start(loadTestProperties.getPort("mongo.port"));
+             var moviesInfoService = ServiceProcess.start("movies-info-service", loadTestProperties.getPath("jar.moviesInfo"),
+                     loadTestProperties.getPort("port.moviesInfo"), jvmArgs,
+                     withMongoPort(backendArgs, mongo), reportDir);
+             var reviewsService = ServiceProcess.start("movies-review-service", loadTestProperties.getPath("jar.reviews"),
+                     loadTestProperties.getPort("port.reviews"), jvmArgs,
+                     withMongoPort(backendArgs, mongo), reportDir);
+             var moviesService = ServiceProcess.start("movies-service", loadTestProperties.getPath("jar.movies"),
+                     loadTestProperties.getPort("port.movies"), jvmArgs,
+                     List.of("--restClient.moviesInfoUrl=" + moviesInfoService.getBaseUrl() + "/v1/movieinfos",
+                             "--restClient.reviewsUrl=" + reviewsService.getBaseUrl() + "/v1/reviews",
+                             "--logging.level.root=WARN"), reportDir)) {
+
+            // the three JVMs boot in parallel, movies-service only talks to the backends once load starts
+            moviesInfoService.awaitHealthy(startupTimeout);
+            reviewsService.awaitHealthy(startupTimeout);
+            moviesService.awaitHealthy(startupTimeout);
+
+            var maxInFlight = loadTestProperties.getInt("maxInFlight");
+            var httpClient = HttpClient.create(ConnectionProvider.builder("load-test")
+                            .maxConnections(maxInFlight)
+                            .pendingAcquireMaxCount(-1)
+                            .build())
+                    .responseTimeout(RESPONSE_TIMEOUT);
+            var catalog = new CatalogSeeder(httpClient, objectMapper, loadTestProperties)
+                    .seed(moviesInfoService.getBaseUrl(), reviewsService.getBaseUrl());
+
+            var baseUrls = Map.of(
+                    "moviesInfo", moviesInfoService.getBaseUrl(),
+                    "reviews", reviewsService.getBaseUrl(),
+                    "movies", moviesService.getBaseUrl());
+            var results = runScenarios(loadTestProperties, new OpenModelLoadGenerator(httpClient, maxInFlight),
+                    catalog, baseUrls);
+            return report(loadTestProperties, objectMapper, results);
+        }
+    }
+
+    private static List<String> withMongoPort(List<String> args, EmbeddedMongo mongo) {
+        var withPort = new ArrayList<>(args);
+        withPort.add("--spring.data.mongodb.port=" + mongo.getPort());
+        return withPort;
+    }
+
+    // all scenarios run at the same time, each from its own scheduling thread, to get a production-like mix
+    private Map<String, OpenModelLoadGenerator.Result> runScenarios(LoadTestProperties loadTestProperties,
+                                                                    OpenModelLoadGenerator loadGenerator,
+                                                                    Catalog catalog,
+                                                                    Map<String, String> baseUrls) {
+        var warmup = loadTestProperties.getDuration("warmup");
+        var duration = loadTestProperties.getDuration("duration");
+        var scenarios = loadTestProperties.getList("scenarios");
+        var executor = Executors.newFixedThreadPool(scenarios.size());
+        try {
+            var futures = new LinkedHashMap<String, CompletableFuture<OpenModelLoadGenerator.Result>>();
+            scenarios.forEach(name -> {
+                var scenario = Scenario.of(name);
+                var rps = loadTestProperties.getDouble("scenario." + name + ".rps");
+                System.out.printf("Running %s at %.0f rps for %s after a %s warmup%n", name, rps, duration, warmup);
+                futures.put(name, CompletableFuture.supplyAsync(() -> loadGenerator.run(
+                        baseUrls.get(scenario.getService()), rps,
+                        () -> scenario.path(catalog.nextMovieId()), warmup, duration), executor));
+            });
+            return futures.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().join(),
+                            (first, second) -> first, LinkedHashMap::new));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> report(LoadTestProperties loadTestProperties, ObjectMapper objectMapper,
+                                Map<String, OpenModelLoadGenerator.Result> results) throws IOException {
+        var reportDir = loadTestProperties.getPath("reportDir");
+        Files.createDirectories(reportDir);
+        var summaries = new LinkedHashMap<String, ScenarioSummary>();
+        for (var result : results.entrySet()) {
+            var summary = result.getValue().summarize();
+            summaries.put(result.getKey(), summary);
+            System.out.printf("%-10s %8.1f rps  p50 %8.2fms  p90 %8.2fms  p99 %8.2fms  p99.9 %8.2fms  max %8.2fms  errors %d/%d%n",
+                    result.getKey(), summary.getThroughputRps(), summary.getP50Ms(), summary.getP90Ms(),
+                    summary.getP99Ms(), summary.getP999Ms(), summary.getMaxMs(), summary.getErrors(), summary.getRequests());
+            try (var printStream = new PrintStream(reportDir.resolve(result.getKey() + ".hgrm").toFile())) {
+                result.getValue().printPercentiles(printStream);
+            }
+        }
+        objectMapper.writeValue(reportDir.resolve("results.json").toFile(), summaries);
+
+        var baselineFile = loadTestProperties.getPath("baseline");
+        if (loadTestProperties.getBoolean("updateBaseline") || Files.notExists(baselineFile)) {
+            objectMapper.writeValue(baselineFile.toFile(), summaries);
+            System.out.println("Wrote the SLO baseline to " + baselineFile + ", commit it to compare later runs against");
+            return new SloCheck(loadTestProperties).violations(summaries, Map.of());
+        }
+        Map<String, ScenarioSummary> baseline = objectMapper.readValue(baselineFile.toFile(),
+                new TypeReference<LinkedHashMap<String, ScenarioSummary>>() {
+                });
+        return new SloCheck(loadTestProperties).violations(summaries, baseline);
+    }
+}
@@ -0,0 +1,91 @@
+package com.reactivespring.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+public class LoadTestProperties {
+
+    private static final String DEFAULTS = "/loadtest.properties";
+    private static final String PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    LoadTestProperties(Properties properties) {
+        this.properties = properties;
+    }
+
+    // loadtest.properties from the classpath, overridden by any loadtest.* system property
+    public static LoadTestProperties load() {
+        var properties = new Properties();
+        try (var defaults = LoadTestProperties.class.getResourceAsStream(DEFAULTS)) {
+            properties.load(Objects.requireNonNull(defaults, DEFAULTS + " is missing"));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith(PREFIX))
+                .forEach(key -> properties.setProperty(key, System.getProperty(key)));
+        return new LoadTestProperties(properties);
+    }
+
+    public Optional<String> find(String key) {
+        return Optional.ofNullable(properties.getProperty(PREFIX + key))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty());
+    }
+
+    public String get(String key) {
+        return find(key).orElseThrow(() -> new IllegalStateException(PREFIX + key + " must be set"));
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    public double getDouble(String key) {
+        return Double.parseDouble(get(key));
+    }
+
+    public Duration getDuration(String key) {
+        return DurationStyle.detectAndParse(get(key));
+    }
+
+    public boolean getBoolean(String key) {
+        return find(key).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    public Path getPath(String key) {
+        return Path.of(get(key));
+    }
+
+    public List<String> getList(String key) {
+        return find(key).stream()
+                .flatMap(value -> Arrays.stream(value.split("[,\\s]+")))
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public int getPort(String key) {
+        var port = getInt(key);
+        return port == 0 ? freePort() : port;
+    }
+
+    private static int freePort() {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.reactivespring.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class OpenModelLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+
+    public OpenModelLoadGenerator(HttpClient httpClient, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // requests go out on a fixed schedule whatever the responses do, and latency is measured from the
+    // scheduled send time so a stalled server cannot hide its queueing delay (no coordinated omission)
+    public Result run(String baseUrl, double rps, Supplier<String> path, Duration warmup, Duration duration) {
+        var histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        var requests = new LongAdder();
+        var errors = new LongAdder();
+        var inFlight = new AtomicInteger();
+
+        var periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rps);
+        var startNanos = System.nanoTime();
+        var measureFromNanos = startNanos + warmup.toNanos();
+        var endNanos = measureFromNanos + duration.toNanos();
+        for (long i = 0; ; i++) {
+            var intendedNanos = startNanos + i * periodNanos;
+            if (intendedNanos >= endNanos) break;
+            parkUntil(intendedNanos);
+
+            var measured = intendedNanos >= measureFromNanos;
+            if (measured) requests.increment();
+            // the client cannot keep the schedule any more, which counts against the server like any other failure
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) errors.increment();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            httpClient.get()
+                    .uri(baseUrl + path.get())
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .thenReturn(response.status().code()))
+                    .doFinally(signalType -> inFlight.decrementAndGet())
+                    .subscribe(status -> {
+                        if (!measured) return;
+                        if (status >= 200 && status < 300) {
+                            var latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+                            histogram.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                        } else {
+                            errors.increment();
+                        }
+                    }, ex -> {
+                        if (measured) errors.increment();
+                    });
+        }
+
+        var drainDeadlineNanos = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadlineNanos) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        errors.add(inFlight.get());
+        return new Result(rps, duration, histogram, requests.sum(), errors.sum());
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long waitNanos;
+        while ((waitNanos = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    public static class Result {
+
+        private final double targetRps;
+        private final Duration duration;
+        private final Histogram histogram;
+        private final long requests;
+        private final long errors;
+
+        Result(double targetRps, Duration duration, Histogram histogram, long requests, long errors) {
+            this.targetRps = targetRps;
+            this.duration = duration;
+            this.histogram = histogram;
+            this.requests = requests;
+            this.errors = errors;
+        }
+
+        public ScenarioSummary summarize() {
+            return new ScenarioSummary(
+                    targetRps,
+                    requests,
+                    errors,
+                    requests == 0 ? 0d : (double) errors / requests,
+                    histogram.getTotalCount() / (duration.toNanos() / 1e9),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        public void printPercentiles(PrintStream printStream) {
+            histogram.outputPercentileDistribution(printStream, 1000d);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000d;
+        }
+    }
+}
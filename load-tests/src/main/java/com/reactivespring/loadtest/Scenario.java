@@ -0,0 +1,40 @@
+package com.reactivespring.loadtest;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+public enum Scenario {
+
+    MOVIE("movie", "movies", movieId -> "/v1/movies/" + movieId),
+    MOVIE_INFOS("movieinfos", "moviesInfo", movieId -> "/v1/movieinfos"),
+    REVIEWS("reviews", "reviews", movieId -> "/v1/reviews?movieInfoId=" + movieId);
+
+    private final String name;
+    private final String service;
+    private final Function<String, String> path;
+
+    Scenario(String name, String service, Function<String, String> path) {
+        this.name = name;
+        this.service = service;
+        this.path = path;
+    }
+
+    public static Scenario of(String name) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario : " + name));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String path(String movieId) {
+        return path.apply(movieId);
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactivespring.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioSummary {
+
+    private double targetRps;
+    private long requests;
+    private long errors;
+    private double errorRate;
+    private double throughputRps;
+    private double p50Ms;
+    private double p90Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maxMs;
+}
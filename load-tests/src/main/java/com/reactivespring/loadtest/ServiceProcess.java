@@ -0,0 +1,95 @@
+package com.reactivespring.loadtest;
+
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ServiceProcess implements AutoCloseable {
+
+    private static final Duration HEALTH_POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final String name;
+    private final Process process;
+    private final Path logFile;
+    private final int port;
+
+    private ServiceProcess(String name, Process process, Path logFile, int port) {
+        this.name = name;
+        this.process = process;
+        this.logFile = logFile;
+        this.port = port;
+    }
+
+    // runs the service's boot jar in its own JVM so the three apps never share a classpath
+    public static ServiceProcess start(String name, Path jar, int port, List<String> jvmArgs,
+                                       List<String> appArgs, Path logDir) {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+        try {
+            Files.createDirectories(logDir);
+            var logFile = logDir.resolve(name + ".log");
+            var process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logFile.toFile())
+                    .start();
+            return new ServiceProcess(name, process, logFile, port);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public ServiceProcess awaitHealthy(Duration timeout) {
+        var httpClient = HttpClient.create().responseTimeout(HEALTH_POLL_INTERVAL);
+        var deadlineNanos = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadlineNanos) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + logFile);
+            }
+            var status = httpClient.get()
+                    .uri(getBaseUrl() + "/actuator/health")
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .thenReturn(response.status().code()))
+                    .onErrorReturn(-1)
+                    .block();
+            if (status != null && status == 200) return this;
+            sleep(HEALTH_POLL_INTERVAL);
+        }
+        throw new IllegalStateException(name + " was not healthy within " + timeout + ", see " + logFile);
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (InterruptedException ex) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reactivespring.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+public class SloCheck {
+
+    private static final Map<String, ToDoubleFunction<ScenarioSummary>> PERCENTILES = Map.of(
+            "p50Ms", ScenarioSummary::getP50Ms,
+            "p90Ms", ScenarioSummary::getP90Ms,
+            "p99Ms", ScenarioSummary::getP99Ms,
+            "p999Ms", ScenarioSummary::getP999Ms);
+
+    private final LoadTestProperties loadTestProperties;
+    private final double maxRegression;
+    private final double maxErrorRate;
+
+    public SloCheck(LoadTestProperties loadTestProperties) {
+        this.loadTestProperties = loadTestProperties;
+        this.maxRegression = loadTestProperties.getDouble("slo.maxRegression");
+        this.maxErrorRate = loadTestProperties.getDouble("slo.maxErrorRate");
+    }
+
+    public List<String> violations(Map<String, ScenarioSummary> current, Map<String, ScenarioSummary> baseline) {
+        return current.entrySet().stream()
+                .flatMap(scenario -> violations(scenario.getKey(), scenario.getValue(),
+                        Optional.ofNullable(baseline.get(scenario.getKey()))).stream())
+                .collect(Collectors.toList());
+    }
+
+    // a scenario missing from the baseline is only held to its absolute limits
+    public List<String> violations(String scenario, ScenarioSummary current, Optional<ScenarioSummary> baseline) {
+        var violations = new ArrayList<String>();
+        if (current.getErrorRate() > maxErrorRate) {
+            violations.add(String.format("%s error rate %.4f is above %.4f", scenario, current.getErrorRate(), maxErrorRate));
+        }
+        PERCENTILES.forEach((percentile, value) -> {
+            var actual = value.applyAsDouble(current);
+            loadTestProperties.find("scenario." + scenario + ".slo." + percentile)
+                    .map(Double::parseDouble)
+                    .filter(limit -> actual > limit)
+                    .ifPresent(limit -> violations.add(String.format("%s %s %.2fms is above the limit of %.2fms",
+                            scenario, percentile, actual, limit)));
+            baseline.map(value::applyAsDouble)
+                    .filter(expected -> actual > expected * (1 + maxRegression))
+                    .ifPresent(expected -> violations.add(String.format("%s %s %.2fms regressed from a baseline of %.2fms",
+                            scenario, percentile, actual, expected)));
+        });
+        baseline.map(ScenarioSummary::getThroughputRps)
+                .filter(expected -> current.getThroughputRps() < expected * (1 - maxRegression))
+                .ifPresent(expected -> violations.add(String.format("%s throughput %.1f rps regressed from a baseline of %.1f rps",
+                        scenario, current.getThroughputRps(), expected)));
+        return violations;
+    }
+}
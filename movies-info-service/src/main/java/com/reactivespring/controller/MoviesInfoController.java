@@ -1,8 +1,18 @@
 package com.reactivespring.controller;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoIngestEvent;
+import com.reactivespring.exception.MoviesInfoRequestException;
+import com.reactivespring.service.MovieInfoExportService;
+import com.reactivespring.service.MovieInfoIngestService;
 import com.reactivespring.service.MoviesInfoService;
+import com.reactivespring.tracing.SignalTracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,6 +21,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -19,16 +30,51 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 @RestController
 @RequestMapping("/v1")
 public class MoviesInfoController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
     private MoviesInfoService moviesInfoService;
 
-    public MoviesInfoController(MoviesInfoService moviesInfoService) {
+    private MovieInfoIngestService movieInfoIngestService;
+
+    private MovieInfoExportService movieInfoExportService;
+
+    private SignalTracer signalTracer;
+
+    private CacheControl cacheControl;
+
+    @Value("${movieinfos.page.defaultSize:100}")
+    private int defaultPageSize;
+
+    @Value("${movieinfos.page.maxSize:500}")
+    private int maxPageSize;
+
+    @Value("${movieinfos.search.defaultLimit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${movieinfos.search.maxLimit:100}")
+    private int maxSearchLimit;
+
+    public MoviesInfoController(MoviesInfoService moviesInfoService,
+                                MovieInfoIngestService movieInfoIngestService,
+                                MovieInfoExportService movieInfoExportService,
+                                SignalTracer signalTracer,
+                                @Value("${movieinfos.cacheControl.maxAge:60s}") Duration cacheMaxAge) {
         this.moviesInfoService = moviesInfoService;
+        this.movieInfoIngestService = movieInfoIngestService;
+        this.movieInfoExportService = movieInfoExportService;
+        this.signalTracer = signalTracer;
+        this.cacheControl = CacheControl.maxAge(cacheMaxAge).mustRevalidate();
     }
 
     @PostMapping("/movieinfos")
@@ -36,27 +82,150 @@ public class MoviesInfoController {
     public Mono<MovieInfo> addMovieInfo(
             @RequestBody @Valid MovieInfo movieInfo) {
 
-        return moviesInfoService.addMovieInfo(movieInfo).log();
+        return moviesInfoService.addMovieInfo(movieInfo)
+                .transform(signalTracer.mono("moviesInfoController.addMovieInfo"));
+    }
+
+    // one MovieInfo per line in, one line out for every line that could not be stored and a closing summary
+    @PostMapping(value = "/movieinfos/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MovieInfoIngestEvent> bulkAddMovieInfos(
+            @RequestBody Flux<String> lines) {
+
+        return movieInfoIngestService.ingest(lines)
+                .transform(signalTracer.flux("moviesInfoController.bulkAddMovieInfos"));
     }
 
+    // without cursor and limit the whole listing is returned as before, filtered by year or else by name; with either,
+    // one bounded page per request matching both filters, and the opaque X-Next-Cursor header is passed back as cursor
+    // for the next one. A page carries a weak ETag digesting
+    // the ids and versions it returns, a matching If-None-Match is answered with 304 and no body
     @GetMapping("/movieinfos")
-    public Flux<MovieInfo> getAllMovieInfos(
+    public Mono<ResponseEntity<Flux<MovieInfo>>> getAllMovieInfos(
             @RequestParam(value = "year", required = false) Integer year,
-            @RequestParam(value = "name", required = false) String name) {
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        if (Objects.isNull(cursor) && Objects.isNull(limit)) {
+            return Mono.just(ResponseEntity.ok().body(getMovieInfos(year, name)
+                    .transform(signalTracer.flux("moviesInfoController.getAllMovieInfos"))));
+        }
+
+        var pageSize = Objects.isNull(limit) ?
+                defaultPageSize :
+                Math.max(1, Math.min(limit, maxPageSize));
+
+        return moviesInfoService.getMovieInfosPage(year, name, cursor, pageSize)
+                .map(movieInfoPage -> {
+                    var response = ResponseEntity.ok()
+                            .eTag("W/\"" + movieInfoPage.getVersionTag() + "\"")
+                            .cacheControl(cacheControl)
+                            .varyBy(HttpHeaders.ACCEPT);
+                    if (movieInfoPage.hasNext()) response.header(NEXT_CURSOR_HEADER, movieInfoPage.getNextCursor());
+                    return response.body(movieInfoPage.getMovieInfos()
+                            .transform(signalTracer.flux("moviesInfoController.getAllMovieInfos")));
+                });
+    }
 
-        if (Objects.nonNull(year)) return moviesInfoService.findMovieInfosByYear(year).log();
-        if (StringUtils.hasLength(name)) return moviesInfoService.findMovieInfosByName(name).log();
-        return moviesInfoService.getAllMovieInfos().log();
+    private Flux<MovieInfo> getMovieInfos(Integer year, String name) {
+        if (Objects.nonNull(year)) return moviesInfoService.findMovieInfosByYear(year);
+        if (StringUtils.hasLength(name)) return moviesInfoService.findMovieInfosByName(name);
+        return moviesInfoService.getAllMovieInfos();
     }
 
+    // the whole catalog as NDJSON, gzip compressed when the client accepts it
+    @GetMapping(value = "/movieinfos/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> exportMovieInfos(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        var gzip = acceptsGzip(acceptEncoding);
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        return response.body(movieInfoExportService.exportMovieInfos(gzip)
+                .transform(signalTracer.flux("moviesInfoController.exportMovieInfos")));
+    }
+
+    // gzip is used when it is listed, or covered by "*", with a non-zero qvalue; "gzip;q=0" explicitly refuses it
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) return false;
+        var wildcardQuality = 0.0;
+        for (String coding : acceptEncoding.split(",")) {
+            var parameters = coding.split(";");
+            var name = parameters[0].trim();
+            if ("gzip".equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) return quality(parameters) > 0;
+            if ("*".equals(name)) wildcardQuality = quality(parameters);
+        }
+        return wildcardQuality > 0;
+    }
+
+    // a malformed qvalue counts as a refusal, the uncompressed body is always acceptable
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            var parameter = parameters[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    @GetMapping("/movieinfos/search")
+    public Flux<MovieInfo> searchMovieInfos(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        if (!StringUtils.hasText(query)) {
+            return Flux.error(new MoviesInfoRequestException("q must be present"));
+        }
+        var searchLimit = Objects.isNull(limit) ?
+                defaultSearchLimit :
+                Math.max(1, Math.min(limit, maxSearchLimit));
+
+        return moviesInfoService.searchMovieInfos(query, searchLimit)
+                .transform(signalTracer.flux("moviesInfoController.searchMovieInfos"));
+    }
+
+    // the ETag is derived from the document version and the representation, JSON or Smile, chosen from the Accept
+    // header; WebFlux answers a matching If-None-Match with 304 and no body
     @GetMapping("/movieinfos/{id}")
     public Mono<ResponseEntity<MovieInfo>> getAllMovieInfoById(
-            @PathVariable String id) {
+            @PathVariable String id,
+            @RequestHeader HttpHeaders headers) {
 
+        var smile = acceptsSmile(headers.getAccept());
         return moviesInfoService.getMovieInfoById(id)
-                .map(movieInfo -> ResponseEntity.ok().body(movieInfo))
+                .map(movieInfo -> toResponse(movieInfo, smile))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                .log();
+                .transform(signalTracer.mono("moviesInfoController.getMovieInfoById"));
+    }
+
+    private ResponseEntity<MovieInfo> toResponse(MovieInfo movieInfo, boolean smile) {
+        var response = ResponseEntity.ok().cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT);
+        if (Objects.nonNull(movieInfo.getVersion())) {
+            response.eTag(movieInfo.getMovieInfoId() + "-" + movieInfo.getVersion() + (smile ? "-smile" : ""));
+        }
+        return response.body(movieInfo);
+    }
+
+    // mirrors the writer selection: the most preferred type JSON or Smile is compatible with wins, "*/*" and no
+    // Accept header at all mean JSON
+    private static boolean acceptsSmile(List<MediaType> accept) {
+        var mediaTypes = new ArrayList<>(accept);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (var mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) return false;
+            if (mediaType.isCompatibleWith(APPLICATION_SMILE)) return true;
+        }
+        return false;
     }
 
     @PutMapping("/movieinfos/{id}")
@@ -67,7 +236,7 @@ public class MoviesInfoController {
         return moviesInfoService.updateMovieInfo(id, movieInfo)
                 .map(movieInfo1 -> ResponseEntity.ok().body(movieInfo1))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                .log();
+                .transform(signalTracer.mono("moviesInfoController.updateMovieInfo"));
     }
 
     @DeleteMapping("/movieinfos/{id}")
@@ -75,6 +244,7 @@ public class MoviesInfoController {
     public Mono<Void> deleteMovieInfo(
             @PathVariable String id) {
 
-        return moviesInfoService.deleteMovieInfo(id).log();
+        return moviesInfoService.deleteMovieInfo(id)
+                .transform(signalTracer.mono("moviesInfoController.deleteMovieInfo"));
     }
 }
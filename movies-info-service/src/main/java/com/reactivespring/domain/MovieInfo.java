@@ -1,9 +1,14 @@
 package com.reactivespring.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.NotBlank;
@@ -16,6 +21,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document
+// every filter is followed by _id so the keyset pages come out of the index already sorted,
+// year_id and name_id also serve the plain findByYear/findByName lookups
+@CompoundIndexes({
+        @CompoundIndex(name = "year_id", def = "{ 'year' : 1, '_id' : 1 }"),
+        @CompoundIndex(name = "name_id", def = "{ 'name' : 1, '_id' : 1 }"),
+        @CompoundIndex(name = "year_name_id", def = "{ 'year' : 1, 'name' : 1, '_id' : 1 }")
+})
 public class MovieInfo {
 
     @Id
@@ -28,7 +40,17 @@ public class MovieInfo {
     @Positive(message = "movieInfo.year must be a positive value")
     private Integer year;
 
+    @Indexed(name = "cast")
     private List<@NotBlank(message = "movieInfo.cast must be present") String> cast;
 
     private LocalDate releaseDate;
+
+    // bumped by every save and used as the ETag, clients cannot set it
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    public MovieInfo(String movieInfoId, String name, Integer year, List<String> cast, LocalDate releaseDate) {
+        this(movieInfoId, name, year, cast, releaseDate, null);
+    }
 }
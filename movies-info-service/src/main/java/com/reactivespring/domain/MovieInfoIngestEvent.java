@@ -0,0 +1,34 @@
+package com.reactivespring.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieInfoIngestEvent {
+
+    public static final String FAILURE = "failure";
+    public static final String SUMMARY = "summary";
+
+    private String type;
+
+    private Long line;
+    private String movieInfoId;
+    private String error;
+
+    private Long received;
+    private Long inserted;
+    private Long failed;
+
+    public static MovieInfoIngestEvent failure(long line, String movieInfoId, String error) {
+        return new MovieInfoIngestEvent(FAILURE, line, movieInfoId, error, null, null, null);
+    }
+
+    public static MovieInfoIngestEvent summary(long received, long inserted, long failed) {
+        return new MovieInfoIngestEvent(SUMMARY, null, null, null, received, inserted, failed);
+    }
+}
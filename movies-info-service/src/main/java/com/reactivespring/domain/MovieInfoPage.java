@@ -0,0 +1,22 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import reactor.core.publisher.Flux;
+
+import java.util.Objects;
+
+@Data
+@AllArgsConstructor
+public class MovieInfoPage {
+
+    private Flux<MovieInfo> movieInfos;
+
+    private String versionTag;
+
+    private String nextCursor;
+
+    public boolean hasNext() {
+        return Objects.nonNull(nextCursor);
+    }
+}
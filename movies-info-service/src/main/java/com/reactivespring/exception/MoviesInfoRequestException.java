@@ -0,0 +1,10 @@
+package com.reactivespring.exception;
+
+public class MoviesInfoRequestException extends RuntimeException {
+    private String message;
+
+    public MoviesInfoRequestException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
@@ -1,7 +1,10 @@
 package com.reactivespring.exceptionhandler;
 
+import com.reactivespring.exception.MoviesInfoRequestException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -26,4 +29,17 @@ public class GlobalErrorHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
+
+    @ExceptionHandler(MoviesInfoRequestException.class)
+    public ResponseEntity<String> handleMoviesInfoRequestException(MoviesInfoRequestException ex) {
+        log.error("Exception caught in handleMoviesInfoRequestException : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    // a concurrent update already bumped the version, or a movie info with the same id already exists
+    @ExceptionHandler({OptimisticLockingFailureException.class, DuplicateKeyException.class})
+    public ResponseEntity<String> handleConflict(RuntimeException ex) {
+        log.error("Exception caught in handleConflict : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
 }
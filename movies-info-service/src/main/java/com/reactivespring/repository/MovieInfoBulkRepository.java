@@ -0,0 +1,12 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface MovieInfoBulkRepository {
+
+    Mono<Map<Integer, String>> insertUnordered(List<MovieInfo> movieInfos);
+}
@@ -0,0 +1,58 @@
+package com.reactivespring.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reactivespring.domain.MovieInfo;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MovieInfoBulkRepositoryImpl implements MovieInfoBulkRepository {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public MovieInfoBulkRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    // one unordered insertMany per batch, so a bad document does not stop the rest of the batch; the positions that
+    // failed come back with their errors and every other movie info gets the id it was stored under
+    @Override
+    public Mono<Map<Integer, String>> insertUnordered(List<MovieInfo> movieInfos) {
+        if (movieInfos.isEmpty()) return Mono.just(Map.of());
+
+        var documents = movieInfos.stream()
+                .map(this::toDocument)
+                .collect(Collectors.toList());
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(insertManyResult -> Map.<Integer, String>of())
+                .onErrorResume(MongoBulkWriteException.class, ex -> Mono.just(ex.getWriteErrors()
+                        .stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage, (first, second) -> first))))
+                .doOnNext(failures -> IntStream.range(0, movieInfos.size())
+                        .filter(index -> !failures.containsKey(index))
+                        .forEach(index -> movieInfos.get(index).setMovieInfoId(idOf(documents.get(index)))));
+    }
+
+    // written straight to the driver, so the version a save would have initialised is set here
+    private Document toDocument(MovieInfo movieInfo) {
+        movieInfo.setVersion(0L);
+        var document = new Document();
+        reactiveMongoTemplate.getConverter().write(movieInfo, document);
+        return document;
+    }
+
+    private static String idOf(Document document) {
+        var id = document.get("_id");
+        return id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id);
+    }
+}
@@ -0,0 +1,69 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+@Slf4j
+public class MovieInfoIndexes implements SmartInitializingSingleton {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private MovieInfoQueryPlanVerifier movieInfoQueryPlanVerifier;
+
+    private boolean verifyQueryPlans;
+
+    private boolean failOnCollectionScan;
+
+    public MovieInfoIndexes(ReactiveMongoTemplate reactiveMongoTemplate,
+                            MovieInfoQueryPlanVerifier movieInfoQueryPlanVerifier,
+                            @Value("${movieinfos.indexes.verifyQueryPlans:true}") boolean verifyQueryPlans,
+                            @Value("${movieinfos.indexes.failOnCollectionScan:true}") boolean failOnCollectionScan) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.movieInfoQueryPlanVerifier = movieInfoQueryPlanVerifier;
+        this.verifyQueryPlans = verifyQueryPlans;
+        this.failOnCollectionScan = failOnCollectionScan;
+    }
+
+    // the annotations on MovieInfo are the only place indexes are declared; this runs once every singleton exists but
+    // before the web server is started by the context lifecycle, so the indexes are in place before traffic arrives
+    // and a missing index fails the startup rather than a live deployment
+    @Override
+    public void afterSingletonsInstantiated() {
+        ensureIndexesAndVerifyQueryPlans();
+    }
+
+    // the repository's queries are checked against the planner once the indexes exist
+    public void ensureIndexesAndVerifyQueryPlans() {
+        ensureIndexes().block(Duration.ofMinutes(5));
+        if (!verifyQueryPlans) return;
+
+        var collectionScans = movieInfoQueryPlanVerifier.findCollectionScans()
+                .collectList()
+                .block(Duration.ofMinutes(1));
+        if (collectionScans == null || collectionScans.isEmpty()) return;
+
+        collectionScans.forEach(query -> log.error("Collection scan planned for movie info query : {}", query));
+        if (failOnCollectionScan) {
+            throw new IllegalStateException("Movie info queries without a supporting index : " + collectionScans);
+        }
+    }
+
+    public Mono<Void> ensureIndexes() {
+        var indexResolver = new MongoPersistentEntityIndexResolver(reactiveMongoTemplate.getConverter().getMappingContext());
+        var indexOperations = reactiveMongoTemplate.indexOps(MovieInfo.class);
+        return Flux.fromIterable(indexResolver.resolveIndexFor(MovieInfo.class))
+                .concatMap(indexDefinition -> indexOperations.ensureIndex(indexDefinition))
+                .doOnNext(indexName -> log.info("Ensured movie info index : {}", indexName))
+                .then();
+    }
+}
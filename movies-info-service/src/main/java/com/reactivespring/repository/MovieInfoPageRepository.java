@@ -0,0 +1,13 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import reactor.core.publisher.Flux;
+
+public interface MovieInfoPageRepository {
+
+    Flux<MovieInfo> findAfter(Integer year, String name, String afterId, int limit);
+
+    Flux<MovieInfo> findBetween(Integer year, String name, String afterId, String throughId);
+
+    Flux<String> findRangeBoundaries(int ranges);
+}
@@ -0,0 +1,93 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import org.bson.BsonType;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class MovieInfoPageRepositoryImpl implements MovieInfoPageRepository {
+
+    static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "_id");
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public MovieInfoPageRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    // a page and its versions in one index seek past the cursor
+    @Override
+    public Flux<MovieInfo> findAfter(Integer year, String name, String afterId, int limit) {
+        var query = Query.query(matching(year, name, afterId, null))
+                .with(BY_ID)
+                .limit(limit);
+        return reactiveMongoTemplate.find(query, MovieInfo.class);
+    }
+
+    // every document with an id after afterId and up to throughId inclusive, either bound may be null for an open end;
+    // the export scans one such range per boundary pair from findRangeBoundaries, so the ranges cover the collection
+    // without overlapping and the scan streams as far as the range goes, with no limit
+    @Override
+    public Flux<MovieInfo> findBetween(Integer year, String name, String afterId, String throughId) {
+        var query = Query.query(matching(year, name, afterId, throughId))
+                .with(BY_ID);
+        return reactiveMongoTemplate.find(query, MovieInfo.class);
+    }
+
+    // ids cutting the collection into ranges of about the same size, each the inclusive end of one range; the offsets
+    // come from the estimated count and each id is read by skipping along the _id index without touching documents
+    @Override
+    public Flux<String> findRangeBoundaries(int ranges) {
+        return reactiveMongoTemplate.estimatedCount(MovieInfo.class)
+                .flatMapMany(count -> Flux.range(1, ranges - 1)
+                        .map(range -> count * range / ranges)
+                        .filter(offset -> offset > 0)
+                        .distinct()
+                        .concatMap(offset -> findIdAt(offset - 1)));
+    }
+
+    private Mono<String> findIdAt(long offset) {
+        var query = new Query()
+                .with(BY_ID)
+                .skip(offset)
+                .limit(1);
+        query.fields().include("_id");
+        return reactiveMongoTemplate.findOne(query, MovieInfo.class)
+                .map(MovieInfo::getMovieInfoId);
+    }
+
+    // _id holds both client supplied strings and generated ObjectIds, mongo sorts every string before every ObjectId
+    // but only compares values of the same type, so each bound also has to admit the other type on the right side
+    static Criteria matching(Integer year, String name, String afterId, String throughId) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (Objects.nonNull(year)) criteria.add(Criteria.where("year").is(year));
+        if (StringUtils.hasLength(name)) criteria.add(Criteria.where("name").is(name));
+
+        if (Objects.nonNull(afterId)) {
+            criteria.add(ObjectId.isValid(afterId) ?
+                    Criteria.where("_id").gt(new ObjectId(afterId)) :
+                    new Criteria().orOperator(
+                            Criteria.where("_id").gt(afterId),
+                            Criteria.where("_id").type(BsonType.OBJECT_ID.getValue())));
+        }
+        if (Objects.nonNull(throughId)) {
+            criteria.add(ObjectId.isValid(throughId) ?
+                    new Criteria().orOperator(
+                            Criteria.where("_id").lte(new ObjectId(throughId)),
+                            Criteria.where("_id").type(BsonType.STRING.getValue())) :
+                    Criteria.where("_id").lte(throughId));
+        }
+
+        return criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria.toArray(new Criteria[0]));
+    }
+}
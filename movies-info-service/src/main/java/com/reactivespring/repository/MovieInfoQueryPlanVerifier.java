@@ -0,0 +1,115 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class MovieInfoQueryPlanVerifier {
+
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private QueryMapper queryMapper;
+
+    private MongoPersistentEntity<?> movieInfoEntity;
+
+    public MovieInfoQueryPlanVerifier(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.queryMapper = new QueryMapper(reactiveMongoTemplate.getConverter());
+        this.movieInfoEntity = reactiveMongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(MovieInfo.class);
+    }
+
+    // the descriptions of every repository query whose winning plan reads the whole collection
+    public Flux<String> findCollectionScans() {
+        return Flux.fromIterable(repositoryQueries().entrySet())
+                .concatMap(query -> explain(query.getValue())
+                        .filter(MovieInfoQueryPlanVerifier::scansCollection)
+                        .map(plan -> query.getKey()));
+    }
+
+    // the derived finders declared on MovieInfoRepository plus the keyset page and export range shapes from
+    // MovieInfoPageRepositoryImpl
+    Map<String, Query> repositoryQueries() {
+        Map<String, Query> queries = new LinkedHashMap<>();
+        Arrays.stream(MovieInfoRepository.class.getDeclaredMethods())
+                .filter(method -> !method.isAnnotationPresent(org.springframework.data.mongodb.repository.Query.class))
+                .forEach(method -> queries.put(method.getName(), derivedQuery(method)));
+
+        var afterId = "abc";
+        var throughId = new ObjectId().toHexString();
+        queries.put("page", pageQuery(null, null, afterId, throughId));
+        queries.put("pageByYear", pageQuery(2005, null, afterId, throughId));
+        queries.put("pageByName", pageQuery(null, "name", afterId, throughId));
+        queries.put("pageByYearAndName", pageQuery(2005, "name", afterId, throughId));
+        queries.put("rangeBoundary", new Query().with(MovieInfoPageRepositoryImpl.BY_ID));
+        return queries;
+    }
+
+    private static Query pageQuery(Integer year, String name, String afterId, String throughId) {
+        return Query.query(MovieInfoPageRepositoryImpl.matching(year, name, afterId, throughId))
+                .with(MovieInfoPageRepositoryImpl.BY_ID);
+    }
+
+    // only equality parts are generated by the repository today, anything else has to be taught to the verifier first
+    private static Query derivedQuery(Method method) {
+        var partTree = new PartTree(method.getName(), MovieInfo.class);
+        var parameterTypes = method.getParameterTypes();
+        List<Criteria> criteria = new ArrayList<>();
+        var parameterIndex = 0;
+        for (Part part : partTree.getParts()) {
+            if (part.getType() != Part.Type.SIMPLE_PROPERTY) {
+                throw new IllegalStateException("Cannot verify the query plan of " + method.getName() + " : " + part.getType());
+            }
+            criteria.add(Criteria.where(part.getProperty().toDotPath()).is(sampleValue(parameterTypes[parameterIndex++])));
+        }
+        var query = criteria.isEmpty() ? new Query() : Query.query(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+        return query.with(partTree.getSort());
+    }
+
+    private static Object sampleValue(Class<?> parameterType) {
+        if (Integer.class.equals(parameterType) || int.class.equals(parameterType)) return 0;
+        if (Long.class.equals(parameterType) || long.class.equals(parameterType)) return 0L;
+        if (String.class.equals(parameterType)) return "";
+        throw new IllegalStateException("No sample value for parameter type " + parameterType.getName());
+    }
+
+    private Mono<Document> explain(Query query) {
+        var find = new Document("find", reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                .append("filter", queryMapper.getMappedObject(query.getQueryObject(), movieInfoEntity))
+                .append("sort", queryMapper.getMappedSort(query.getSortObject(), movieInfoEntity));
+        var explain = new Document("explain", find).append("verbosity", "queryPlanner");
+        return reactiveMongoTemplate.executeCommand(explain)
+                .map(result -> result.get("queryPlanner", Document.class).get("winningPlan", Document.class));
+    }
+
+    private static boolean scansCollection(Object plan) {
+        if (plan instanceof Document) {
+            var stage = (Document) plan;
+            if (COLLECTION_SCAN.equals(stage.get("stage"))) return true;
+            return stage.values().stream().anyMatch(MovieInfoQueryPlanVerifier::scansCollection);
+        }
+        if (plan instanceof List) {
+            return ((List<?>) plan).stream().anyMatch(MovieInfoQueryPlanVerifier::scansCollection);
+        }
+        return false;
+    }
+}
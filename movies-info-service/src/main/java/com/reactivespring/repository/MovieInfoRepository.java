@@ -4,7 +4,8 @@ import com.reactivespring.domain.MovieInfo;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 
-public interface MovieInfoRepository extends ReactiveMongoRepository<MovieInfo, String> {
+public interface MovieInfoRepository extends ReactiveMongoRepository<MovieInfo, String>, MovieInfoPageRepository,
+        MovieInfoBulkRepository {
 
     Flux<MovieInfo> findByYear(Integer year);
 
@@ -0,0 +1,46 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@Slf4j
+public class MovieInfoVersionBackfill implements SmartInitializingSingleton {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public MovieInfoVersionBackfill(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    // runs before the web server is started, like MovieInfoIndexes, so no write reaches an unversioned document
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfillVersions();
+    }
+
+    // documents written before MovieInfo was versioned would be treated as new by save and fail with a duplicate key;
+    // a single server side update, so it is waited for however long the collection takes rather than a fixed timeout,
+    // and a failure is logged instead of failing the startup
+    public void backfillVersions() {
+        reactiveMongoTemplate.updateMulti(
+                        Query.query(Criteria.where("version").exists(false)),
+                        Update.update("version", 0L),
+                        MovieInfo.class)
+                .doOnNext(updateResult -> {
+                    if (updateResult.getModifiedCount() > 0) {
+                        log.info("Backfilled version on {} movie infos", updateResult.getModifiedCount());
+                    }
+                })
+                .doOnError(ex -> log.warn("Could not backfill movie info versions : {}", ex.getMessage()))
+                .onErrorResume(ex -> Mono.empty())
+                .block();
+    }
+}
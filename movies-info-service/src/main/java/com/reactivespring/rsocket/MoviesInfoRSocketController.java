@@ -0,0 +1,31 @@
+package com.reactivespring.rsocket;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.service.MoviesInfoService;
+import com.reactivespring.tracing.SignalTracer;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+@Controller
+public class MoviesInfoRSocketController {
+
+    private MoviesInfoService moviesInfoService;
+
+    private SignalTracer signalTracer;
+
+    public MoviesInfoRSocketController(MoviesInfoService moviesInfoService, SignalTracer signalTracer) {
+        this.moviesInfoService = moviesInfoService;
+        this.signalTracer = signalTracer;
+    }
+
+    // request-stream like the reviews route, so both lookups share one multiplexed connection and credit model;
+    // an unknown id is simply an empty stream
+    @MessageMapping("movieinfos.{id}")
+    public Flux<MovieInfo> getMovieInfoById(@DestinationVariable String id) {
+        return moviesInfoService.getMovieInfoById(id)
+                .flux()
+                .transform(signalTracer.flux("moviesInfoRSocketController.getMovieInfoById"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.reactivespring.search;
+
+import com.reactivespring.domain.MovieInfo;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class InvertedIndex {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    static final int NAME_WEIGHT = 2;
+    static final int CAST_WEIGHT = 1;
+    static final int EXACT_MATCH_BOOST = 2;
+
+    private final Map<String, MovieInfo> movieInfos = new ConcurrentHashMap<>();
+
+    // term -> movieInfoId -> weight of the strongest field the term occurs in, sorted so a prefix is a sub map
+    private final NavigableMap<String, Map<String, Integer>> postings = new ConcurrentSkipListMap<>();
+
+    public synchronized void put(MovieInfo movieInfo) {
+        remove(movieInfo.getMovieInfoId());
+        movieInfos.put(movieInfo.getMovieInfoId(), movieInfo);
+        termWeights(movieInfo).forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(movieInfo.getMovieInfoId(), weight));
+    }
+
+    public synchronized void remove(String movieInfoId) {
+        var movieInfo = movieInfos.remove(movieInfoId);
+        if (Objects.isNull(movieInfo)) return;
+
+        termWeights(movieInfo).keySet().forEach(term -> {
+            var movieInfoIds = postings.get(term);
+            if (Objects.isNull(movieInfoIds)) return;
+            movieInfoIds.remove(movieInfoId);
+            if (movieInfoIds.isEmpty()) postings.remove(term);
+        });
+    }
+
+    public int size() {
+        return movieInfos.size();
+    }
+
+    // every query token has to match a name or cast term, either exactly or as a prefix; an exact match and a match in
+    // the name rank higher, ties are broken by name so the order is stable
+    public List<MovieInfo> search(String query, int limit) {
+        var queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) return List.of();
+
+        Map<String, Integer> scores = null;
+        for (String queryToken : queryTokens) {
+            var tokenScores = scoreToken(queryToken);
+            if (Objects.isNull(scores)) {
+                scores = tokenScores;
+            } else {
+                var previousScores = scores;
+                scores = new HashMap<>();
+                for (var entry : tokenScores.entrySet()) {
+                    var previousScore = previousScores.get(entry.getKey());
+                    if (Objects.nonNull(previousScore)) scores.put(entry.getKey(), previousScore + entry.getValue());
+                }
+            }
+            if (scores.isEmpty()) return List.of();
+        }
+
+        return scores.entrySet()
+                .stream()
+                .map(entry -> Map.entry(entry.getValue(), movieInfos.get(entry.getKey())))
+                .filter(scored -> Objects.nonNull(scored.getValue()))
+                .sorted(Comparator.<Map.Entry<Integer, MovieInfo>>comparingInt(Map.Entry::getKey).reversed()
+                        .thenComparing(scored -> scored.getValue().getName(), Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(scored -> scored.getValue().getMovieInfoId()))
+                .limit(limit)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Integer> scoreToken(String queryToken) {
+        Map<String, Integer> tokenScores = new HashMap<>();
+        postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).forEach((term, movieInfoIds) -> {
+            var boost = term.equals(queryToken) ? EXACT_MATCH_BOOST : 1;
+            movieInfoIds.forEach((movieInfoId, weight) -> tokenScores.merge(movieInfoId, weight * boost, Math::max));
+        });
+        return tokenScores;
+    }
+
+    private static Map<String, Integer> termWeights(MovieInfo movieInfo) {
+        Map<String, Integer> termWeights = new LinkedHashMap<>();
+        tokenize(movieInfo.getName()).forEach(term -> termWeights.merge(term, NAME_WEIGHT, Math::max));
+        if (Objects.nonNull(movieInfo.getCast())) {
+            movieInfo.getCast().forEach(member ->
+                    tokenize(member).forEach(term -> termWeights.merge(term, CAST_WEIGHT, Math::max)));
+        }
+        return termWeights;
+    }
+
+    // case folded and stripped of accents so "Beyoncé" is found by "beyonce"
+    static List<String> tokenize(String text) {
+        if (Objects.isNull(text)) return List.of();
+        var folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_ALPHANUMERIC.split(folded))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -0,0 +1,112 @@
+package com.reactivespring.search;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+@Component
+@Slf4j
+public class MovieInfoSearchIndex {
+
+    private MovieInfoRepository movieInfoRepository;
+
+    private Duration rebuildInterval;
+
+    private volatile InvertedIndex current = new InvertedIndex();
+
+    private InvertedIndex rebuilding;
+
+    // local writes made while a rebuild reads the collection, in order
+    private List<Consumer<InvertedIndex>> writesDuringRebuild = new ArrayList<>();
+
+    private Disposable periodicRebuild;
+
+    public MovieInfoSearchIndex(MovieInfoRepository movieInfoRepository,
+                                @Value("${movieinfos.search.rebuildInterval:10m}") Duration rebuildInterval) {
+        this.movieInfoRepository = movieInfoRepository;
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    // local writes are applied as they happen, the periodic rebuild picks up writes made through other instances
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        rebuild().block(Duration.ofMinutes(5));
+        if (!rebuildInterval.isZero()) {
+            periodicRebuild = Flux.interval(rebuildInterval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> rebuild().onErrorResume(ex -> {
+                        log.warn("Could not rebuild the movie info search index : {}", ex.getMessage());
+                        return Mono.empty();
+                    }))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stopRebuilding() {
+        if (Objects.nonNull(periodicRebuild)) periodicRebuild.dispose();
+    }
+
+    // the new index is filled next to the one serving reads and swapped in once complete; findAll may return a
+    // document as it was before a local write made in the meantime, so those writes are replayed on top of it
+    // before the swap
+    public Mono<Void> rebuild() {
+        return Mono.fromSupplier(this::startRebuilding)
+                .flatMap(invertedIndex -> movieInfoRepository.findAll()
+                        .doOnNext(invertedIndex::put)
+                        .then(Mono.fromRunnable(() -> finishRebuilding(invertedIndex)))
+                        .doOnError(ex -> abandonRebuilding(invertedIndex)))
+                .then();
+    }
+
+    public List<MovieInfo> search(String query, int limit) {
+        return current.search(query, limit);
+    }
+
+    public synchronized void index(MovieInfo movieInfo) {
+        current.put(movieInfo);
+        if (Objects.nonNull(rebuilding)) writesDuringRebuild.add(invertedIndex -> invertedIndex.put(movieInfo));
+    }
+
+    public synchronized void remove(String movieInfoId) {
+        current.remove(movieInfoId);
+        if (Objects.nonNull(rebuilding)) writesDuringRebuild.add(invertedIndex -> invertedIndex.remove(movieInfoId));
+    }
+
+    private synchronized InvertedIndex startRebuilding() {
+        rebuilding = new InvertedIndex();
+        writesDuringRebuild = new ArrayList<>();
+        return rebuilding;
+    }
+
+    private synchronized void finishRebuilding(InvertedIndex invertedIndex) {
+        if (rebuilding != invertedIndex) return;
+        writesDuringRebuild.forEach(write -> write.accept(invertedIndex));
+        current = invertedIndex;
+        stopTracking();
+        log.info("Movie info search index rebuilt with {} movie infos", invertedIndex.size());
+    }
+
+    private synchronized void abandonRebuilding(InvertedIndex invertedIndex) {
+        if (rebuilding == invertedIndex) stopTracking();
+    }
+
+    private void stopTracking() {
+        rebuilding = null;
+        writesDuringRebuild = new ArrayList<>();
+    }
+}
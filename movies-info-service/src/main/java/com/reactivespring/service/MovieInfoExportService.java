@@ -0,0 +1,144 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class MovieInfoExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private MovieInfoRepository movieInfoRepository;
+
+    private ObjectMapper objectMapper;
+
+    @Value("${movieinfos.export.parallelism:4}")
+    private int parallelism;
+
+    @Value("${movieinfos.export.chunkSize:256}")
+    private int chunkSize;
+
+    public MovieInfoExportService(MovieInfoRepository movieInfoRepository, ObjectMapper objectMapper) {
+        this.movieInfoRepository = movieInfoRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // the _id space is cut into parallelism ranges scanned concurrently, lines come out in whatever order the ranges
+    // produce them; every cursor only reads ahead by chunkSize documents, so a slow client slows the scans down
+    // instead of the catalog piling up in memory
+    public Flux<DataBuffer> exportMovieInfos(boolean gzip) {
+        var scans = Math.max(1, parallelism);
+        var linesPerChunk = Math.max(1, chunkSize);
+        var lines = movieInfoRepository.findRangeBoundaries(scans)
+                .collectList()
+                .flatMapMany(boundaries -> Flux.fromIterable(ranges(boundaries)))
+                .flatMap(range -> movieInfoRepository.findBetween(null, null, range.getAfterId(), range.getThroughId()),
+                        scans, linesPerChunk)
+                .map(this::toLine)
+                .buffer(linesPerChunk)
+                .map(MovieInfoExportService::join);
+
+        return (gzip ? gzip(lines) : lines)
+                .map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+
+    private static List<IdRange> ranges(List<String> boundaries) {
+        List<IdRange> ranges = new ArrayList<>();
+        String afterId = null;
+        for (String throughId : boundaries) {
+            ranges.add(new IdRange(afterId, throughId));
+            afterId = throughId;
+        }
+        ranges.add(new IdRange(afterId, null));
+        return ranges;
+    }
+
+    private byte[] toLine(MovieInfo movieInfo) {
+        try {
+            return objectMapper.writeValueAsBytes(movieInfo);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to write movie info " + movieInfo.getMovieInfoId(), ex);
+        }
+    }
+
+    private static byte[] join(List<byte[]> lines) {
+        var chunk = new ByteArrayOutputStream(lines.stream().mapToInt(line -> line.length + 1).sum());
+        lines.forEach(line -> {
+            chunk.writeBytes(line);
+            chunk.write(NEW_LINE);
+        });
+        return chunk.toByteArray();
+    }
+
+    // one gzip member for the whole response, sync flushed after every chunk so each one can go out on its own
+    private static Flux<byte[]> gzip(Flux<byte[]> chunks) {
+        return Flux.using(GzipChunks::new,
+                gzipChunks -> chunks.map(gzipChunks::compress)
+                        .concatWith(Mono.fromCallable(gzipChunks::finish)),
+                GzipChunks::close);
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class IdRange {
+
+        private String afterId;
+        private String throughId;
+    }
+
+    private static class GzipChunks {
+
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+
+        GzipChunks() throws IOException {
+            this.gzip = new GZIPOutputStream(compressed, true);
+        }
+
+        byte[] compress(byte[] chunk) {
+            try {
+                gzip.write(chunk);
+                gzip.flush();
+                return drain();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        byte[] finish() throws IOException {
+            gzip.finish();
+            return drain();
+        }
+
+        void close() {
+            try {
+                gzip.close();
+            } catch (IOException ignored) {
+                // only releases the deflater, the output is in memory
+            }
+        }
+
+        private byte[] drain() {
+            var bytes = compressed.toByteArray();
+            compressed.reset();
+            return bytes;
+        }
+    }
+}
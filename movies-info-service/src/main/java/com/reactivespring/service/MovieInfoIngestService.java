@@ -0,0 +1,141 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoIngestEvent;
+import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.search.MovieInfoSearchIndex;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+@Slf4j
+public class MovieInfoIngestService {
+
+    private MovieInfoRepository movieInfoRepository;
+
+    private MovieInfoSearchIndex movieInfoSearchIndex;
+
+    private ObjectMapper objectMapper;
+
+    private Validator validator;
+
+    @Value("${movieinfos.bulk.batchSize:500}")
+    private int batchSize;
+
+    @Value("${movieinfos.bulk.concurrency:2}")
+    private int concurrency;
+
+    public MovieInfoIngestService(MovieInfoRepository movieInfoRepository,
+                                  MovieInfoSearchIndex movieInfoSearchIndex,
+                                  ObjectMapper objectMapper,
+                                  Validator validator) {
+        this.movieInfoRepository = movieInfoRepository;
+        this.movieInfoSearchIndex = movieInfoSearchIndex;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    // each line is parsed and validated on its own, the valid ones are written batchSize at a time with at most
+    // concurrency inserts in flight, so lines are only pulled from the request as fast as mongo takes them;
+    // a failed line is reported with its line number and the stream carries on, a summary closes the response
+    public Flux<MovieInfoIngestEvent> ingest(Flux<String> lines) {
+        return Flux.defer(() -> {
+            var received = new AtomicLong();
+            var inserted = new AtomicLong();
+            var failed = new AtomicLong();
+
+            return lines.index()
+                    .filter(indexedLine -> StringUtils.hasText(indexedLine.getT2()))
+                    .map(indexedLine -> parse(indexedLine.getT1() + 1, indexedLine.getT2()))
+                    .doOnNext(ingestLine -> received.incrementAndGet())
+                    .buffer(batchSize)
+                    .flatMapSequential(batch -> insertBatch(batch)
+                            .doOnNext(insertedCount -> inserted.addAndGet(insertedCount))
+                            .thenMany(Flux.fromStream(() -> batch.stream()
+                                    .filter(IngestLine::isFailed)
+                                    .map(IngestLine::toFailure))), concurrency, 1)
+                    .doOnNext(failure -> failed.incrementAndGet())
+                    .concatWith(Mono.fromSupplier(() ->
+                            MovieInfoIngestEvent.summary(received.get(), inserted.get(), failed.get())));
+        });
+    }
+
+    private IngestLine parse(long line, String json) {
+        MovieInfo movieInfo;
+        try {
+            movieInfo = objectMapper.readValue(json, MovieInfo.class);
+        } catch (JsonProcessingException ex) {
+            return new IngestLine(line, null, ex.getOriginalMessage());
+        }
+        if (Objects.isNull(movieInfo)) return new IngestLine(line, null, "movieInfo must be present");
+
+        var errors = validator.validate(movieInfo)
+                .stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return new IngestLine(line, movieInfo, errors.isEmpty() ? null : errors);
+    }
+
+    // emits how many of the batch were stored, write errors are recorded against their lines instead of failing it
+    private Mono<Integer> insertBatch(List<IngestLine> batch) {
+        var validLines = batch.stream()
+                .filter(ingestLine -> !ingestLine.isFailed())
+                .collect(Collectors.toList());
+        var movieInfos = validLines.stream()
+                .map(IngestLine::getMovieInfo)
+                .collect(Collectors.toList());
+
+        return movieInfoRepository.insertUnordered(movieInfos)
+                .onErrorResume(ex -> {
+                    log.error("Bulk insert of {} movie infos failed : {}", movieInfos.size(), ex.getMessage());
+                    return Mono.just(IntStream.range(0, movieInfos.size())
+                            .boxed()
+                            .collect(Collectors.toMap(index -> index, index -> String.valueOf(ex.getMessage()))));
+                })
+                .map(failures -> {
+                    IntStream.range(0, validLines.size()).forEach(index -> {
+                        if (failures.containsKey(index)) {
+                            validLines.get(index).setError(failures.get(index));
+                        } else {
+                            movieInfoSearchIndex.index(movieInfos.get(index));
+                        }
+                    });
+                    return movieInfos.size() - failures.size();
+                });
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class IngestLine {
+
+        private long line;
+        private MovieInfo movieInfo;
+        private String error;
+
+        boolean isFailed() {
+            return Objects.nonNull(error);
+        }
+
+        MovieInfoIngestEvent toFailure() {
+            var movieInfoId = Objects.isNull(movieInfo) ? null : movieInfo.getMovieInfoId();
+            return MovieInfoIngestEvent.failure(line, movieInfoId, error);
+        }
+    }
+}
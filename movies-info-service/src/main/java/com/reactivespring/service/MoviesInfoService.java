@@ -1,22 +1,43 @@
 package com.reactivespring.service;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoPage;
+import com.reactivespring.exception.MoviesInfoRequestException;
 import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.search.MovieInfoSearchIndex;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
 @Service
 public class MoviesInfoService {
 
     private MovieInfoRepository movieInfoRepository;
 
-    public MoviesInfoService(MovieInfoRepository movieInfoRepository) {
+    private MovieInfoSearchIndex movieInfoSearchIndex;
+
+    public MoviesInfoService(MovieInfoRepository movieInfoRepository, MovieInfoSearchIndex movieInfoSearchIndex) {
         this.movieInfoRepository = movieInfoRepository;
+        this.movieInfoSearchIndex = movieInfoSearchIndex;
     }
 
+    // posting the id of an existing movie info replaces it, as it did before documents carried a version: the stored
+    // version is carried over so that save updates instead of inserting a duplicate key, only a concurrent write
+    // in between is still answered with 409
     public Mono<MovieInfo> addMovieInfo(MovieInfo movieInfo) {
-        return movieInfoRepository.save(movieInfo);
+        return Mono.justOrEmpty(movieInfo.getMovieInfoId())
+                .flatMap(movieInfoRepository::findById)
+                .doOnNext(existingMovieInfo -> movieInfo.setVersion(existingMovieInfo.getVersion()))
+                .then(Mono.defer(() -> movieInfoRepository.save(movieInfo)))
+                .doOnNext(movieInfoSearchIndex::index);
     }
 
     public Flux<MovieInfo> getAllMovieInfos() {
@@ -36,14 +57,64 @@ public class MoviesInfoService {
                     existingMovieInfo.setYear(movieInfo.getYear());
                     existingMovieInfo.setReleaseDate(movieInfo.getReleaseDate());
                     return movieInfoRepository.save(existingMovieInfo);
-                });
+                })
+                .doOnNext(movieInfoSearchIndex::index);
     }
 
     public Mono<Void> deleteMovieInfo(String id) {
-        return movieInfoRepository.deleteById(id);
+        return movieInfoRepository.deleteById(id)
+                .then(Mono.fromRunnable(() -> movieInfoSearchIndex.remove(id)));
+    }
+
+    // answered from the in-process index, the read path never goes to mongo
+    public Flux<MovieInfo> searchMovieInfos(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(movieInfoSearchIndex.search(query, limit)));
     }
 
     public Flux<MovieInfo> findMovieInfosByYear(Integer year) { return movieInfoRepository.findByYear(year); }
 
     public Flux<MovieInfo> findMovieInfosByName(String name) { return movieInfoRepository.findByName(name); }
+
+    // keyset pagination: each page starts strictly after the last _id of the previous one, so a deep page costs an
+    // index seek like the first; one extra document is read to know whether a next page exists, and the page is
+    // small enough to be tagged from the same read
+    public Mono<MovieInfoPage> getMovieInfosPage(Integer year, String name, String cursor, int pageSize) {
+        var afterId = Objects.isNull(cursor) ? null : decodeCursor(cursor);
+
+        return movieInfoRepository.findAfter(year, name, afterId, pageSize + 1)
+                .collectList()
+                .map(movieInfos -> {
+                    var hasNext = movieInfos.size() > pageSize;
+                    var page = hasNext ? movieInfos.subList(0, pageSize) : movieInfos;
+                    var nextCursor = hasNext ? encodeCursor(page.get(pageSize - 1).getMovieInfoId()) : null;
+                    return new MovieInfoPage(Flux.fromIterable(page), versionTag(page), nextCursor);
+                });
+    }
+
+    private static String versionTag(List<MovieInfo> movieInfos) {
+        var digest = newDigest();
+        movieInfos.forEach(movieInfo -> digest.update((movieInfo.getMovieInfoId() + ":" + movieInfo.getVersion() + "\n")
+                .getBytes(StandardCharsets.UTF_8)));
+        return String.format("%032x", new BigInteger(1, digest.digest()));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String encodeCursor(String movieInfoId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(movieInfoId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new MoviesInfoRequestException("Invalid cursor : " + cursor);
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package com.reactivespring.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.deadline.DeadlineWebFilter;
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoIngestEvent;
 import com.reactivespring.repository.MovieInfoRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,12 +11,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -29,6 +43,9 @@ class MoviesInfoControllerIntgTest {
     @Autowired
     MovieInfoRepository movieInfoRepository;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
     private final static String MOVIES_INFO_CONTEXT_PATH = "/v1/movieinfos";
 
     @BeforeEach
@@ -74,6 +91,29 @@ class MoviesInfoControllerIntgTest {
                 });
     }
 
+    @Test
+    void testAddMovieInfoWithExistingIdReplacesIt() {
+        var movieInfo = new MovieInfo("abc", "Dark Knight Rises 1", 2013, List.of("Christian Bale", "Tom Hardy"),
+                LocalDate.parse("2012-07-20"));
+        webTestClient
+                .post()
+                .uri(MOVIES_INFO_CONTEXT_PATH)
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(MovieInfo.class)
+                .consumeWith(movieInfo1 -> {
+                    var mvInfo = movieInfo1.getResponseBody();
+                    assertNotNull(mvInfo);
+                    assertEquals("abc", mvInfo.getMovieInfoId());
+                    assertEquals("Dark Knight Rises 1", mvInfo.getName());
+                    assertEquals(1L, mvInfo.getVersion());
+                });
+
+        assertEquals(3, movieInfoRepository.count().block());
+    }
+
     @Test
     void testGetAllMovieInfos() {
         webTestClient
@@ -82,6 +122,8 @@ class MoviesInfoControllerIntgTest {
                 .exchange()
                 .expectStatus()
                 .is2xxSuccessful()
+                .expectHeader()
+                .doesNotExist(HttpHeaders.ETAG)
                 .expectBodyList(MovieInfo.class)
                 .hasSize(3);
     }
@@ -104,6 +146,228 @@ class MoviesInfoControllerIntgTest {
                 });
     }
 
+    @Test
+    void testGetAllMovieInfosPageByPage() {
+        var movieInfoIds = new ArrayList<String>();
+        String cursor = null;
+        do {
+            var uri = UriComponentsBuilder.fromUriString(MOVIES_INFO_CONTEXT_PATH)
+                    .queryParam("limit", 1)
+                    .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                    .buildAndExpand().toUri();
+            var result = webTestClient
+                    .get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .returnResult(MovieInfo.class);
+            result.getResponseBody().toStream().forEach(movieInfo -> movieInfoIds.add(movieInfo.getMovieInfoId()));
+            cursor = result.getResponseHeaders().getFirst(MoviesInfoController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        // the client supplied string id sorts before the two generated ObjectIds
+        assertEquals(3, movieInfoIds.size());
+        assertEquals(3, new HashSet<>(movieInfoIds).size());
+        assertEquals("abc", movieInfoIds.get(0));
+    }
+
+    @Test
+    void testGetAllMovieInfosWithInvalidCursor() {
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?cursor=not*base64")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void testSearchMovieInfosFollowsWrites() {
+        var movieInfo = new MovieInfo(null, "Dunkirk", 2017, List.of("Fionn Whitehead", "Tom Hardy"), LocalDate.parse("2017-07-21"));
+        var savedMovieInfo = webTestClient
+                .post()
+                .uri(MOVIES_INFO_CONTEXT_PATH)
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(MovieInfo.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(savedMovieInfo);
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/search?q=hardy")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+
+        webTestClient
+                .delete()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", savedMovieInfo.getMovieInfoId())
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/search?q=dunk")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(0);
+    }
+
+    @Test
+    void testBulkAddMovieInfosReportsFailedLines() {
+        var lines = String.join("\n",
+                "{\"name\":\"Dunkirk\",\"year\":2017,\"cast\":[\"Fionn Whitehead\",\"Tom Hardy\"],\"releaseDate\":\"2017-07-21\"}",
+                "{\"movieInfoId\":\"abc\",\"name\":\"Dark Knight Rises\",\"year\":2012,\"cast\":[\"Tom Hardy\"]}",
+                "",
+                "{\"name\":\"Tenet\",",
+                "{\"name\":\"\",\"year\":2020,\"cast\":[\"John David Washington\"]}",
+                "{\"name\":\"Inception\",\"year\":2010,\"cast\":[\"Leonardo DiCaprio\"]}");
+
+        var ingestEvents = webTestClient
+                .post()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(lines)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfoIngestEvent.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertNotNull(ingestEvents);
+        assertEquals(4, ingestEvents.size());
+        assertEquals(List.of(2L, 4L, 5L), List.of(ingestEvents.get(0).getLine(), ingestEvents.get(1).getLine(),
+                ingestEvents.get(2).getLine()));
+        assertEquals("abc", ingestEvents.get(0).getMovieInfoId());
+        assertEquals("movieInfo.name must be present", ingestEvents.get(2).getError());
+        assertEquals(MovieInfoIngestEvent.summary(5, 2, 3), ingestEvents.get(3));
+        assertEquals(5L, movieInfoRepository.count().block());
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/search?q=hardy")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void testExportMovieInfosWithGzip() throws IOException {
+        var compressed = webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(compressed);
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            var names = new HashSet<String>();
+            for (String line : new String(gzip.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                names.add(objectMapper.readValue(line, MovieInfo.class).getName());
+            }
+            assertEquals(Set.of("Batman Begins", "The Dark Knight", "Dark Knight Rises"), names);
+        }
+    }
+
+    @Test
+    void testGetMovieInfoByIdRevalidatesWithETag() {
+        var movieId = "abc";
+        var eTag = webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+        assertEquals("\"abc-0\"", eTag);
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", movieId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus()
+                .isNotModified();
+
+        var movieInfo = new MovieInfo(null, "Dark Knight Rises1",
+                2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"));
+        webTestClient
+                .put()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", movieId)
+                .bodyValue(movieInfo)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", movieId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"abc-1\"");
+    }
+
+    @Test
+    void testGetAllMovieInfosPageRevalidatesWithETag() {
+        var eTag = webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?limit=10")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(eTag);
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?limit=10")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus()
+                .isNotModified();
+
+        movieInfoRepository.deleteById("abc").block();
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?limit=10")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(2);
+    }
+
     @Test
     void testUpdateMovieInfo() {
         var movieId = "abc";
@@ -203,4 +467,132 @@ class MoviesInfoControllerIntgTest {
                 .expectBodyList(MovieInfo.class)
                 .hasSize(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllMovieInfosWithYearAndNamePassedFiltersByYear() {
+        var uri = UriComponentsBuilder
+                .fromUriString(MOVIES_INFO_CONTEXT_PATH)
+                .queryParam("year", 2012)
+                .queryParam("name", "Batman Begins")
+                .buildAndExpand()
+                .toUri();
+
+        webTestClient
+                .get()
+                .uri(uri)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1)
+                .consumeWith(listEntityExchangeResult -> {
+                    var movieInfos = listEntityExchangeResult.getResponseBody();
+                    assertNotNull(movieInfos);
+                    assertEquals("Dark Knight Rises", movieInfos.get(0).getName());
+                });
+    }
+
+    @Test
+    void testGetAllMovieInfosPageWithYearAndNamePassedMatchesBoth() {
+        var uri = UriComponentsBuilder
+                .fromUriString(MOVIES_INFO_CONTEXT_PATH)
+                .queryParam("year", 2012)
+                .queryParam("name", "Batman Begins")
+                .queryParam("limit", 10)
+                .buildAndExpand()
+                .toUri();
+
+        webTestClient
+                .get()
+                .uri(uri)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(0);
+    }
+
+    @Test
+    void testGetMovieInfoByIdWithExpiredDeadline() {
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", "abc")
+                .header(DeadlineWebFilter.TIMEOUT_HEADER, "0")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    void testGetMovieInfoByIdAsSmile() {
+        var smile = new MediaType("application", "x-jackson-smile");
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", "abc")
+                .accept(smile)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(smile)
+                .expectBody(MovieInfo.class)
+                .consumeWith(movieInfoEntityExchangeResult -> {
+                    var movieInfo = movieInfoEntityExchangeResult.getResponseBody();
+                    assertNotNull(movieInfo);
+                    assertEquals("Dark Knight Rises", movieInfo.getName());
+                    assertEquals(LocalDate.parse("2012-07-20"), movieInfo.getReleaseDate());
+                });
+    }
+
+    @Test
+    void testGetMovieInfoByIdRevalidatesPerRepresentation() {
+        var smile = new MediaType("application", "x-jackson-smile");
+        var jsonETag = webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", "abc")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", "abc")
+                .accept(smile)
+                .header(HttpHeaders.IF_NONE_MATCH, jsonETag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(smile)
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"abc-0-smile\"")
+                .expectHeader()
+                .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", "abc")
+                .accept(smile)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc-0-smile\"")
+                .exchange()
+                .expectStatus()
+                .isNotModified();
+    }
+
+    @Test
+    void testGetMovieInfoByIdDefaultsToJson() {
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", "abc")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,73 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataMongoTest
+@ActiveProfiles("test")
+@Import({MovieInfoIndexes.class, MovieInfoQueryPlanVerifier.class})
+class MovieInfoQueryPlanIntgTest {
+
+    @Autowired
+    MovieInfoRepository movieInfoRepository;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    MovieInfoIndexes movieInfoIndexes;
+
+    @Autowired
+    MovieInfoQueryPlanVerifier movieInfoQueryPlanVerifier;
+
+    @BeforeEach
+    void setUp() {
+        movieInfoRepository
+                .saveAll(List.of(
+                        new MovieInfo(null, "Batman Begins",
+                                2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                        new MovieInfo("abc", "Dark Knight Rises",
+                                2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))))
+                .blockLast();
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieInfoRepository.deleteAll().block();
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        movieInfoIndexes.ensureIndexes().block();
+
+        StepVerifier.create(movieInfoQueryPlanVerifier.findCollectionScans())
+                .verifyComplete();
+    }
+
+    @Test
+    void collectionScansAreReportedWithoutIndexes() {
+        reactiveMongoTemplate.indexOps(MovieInfo.class).dropAllIndexes().block();
+
+        StepVerifier.create(movieInfoQueryPlanVerifier.findCollectionScans().collectList())
+                .assertNext(collectionScans -> {
+                    assertTrue(collectionScans.contains("findByYear"));
+                    assertTrue(collectionScans.contains("findByName"));
+                })
+                .verifyComplete();
+
+        movieInfoIndexes.ensureIndexes().block();
+    }
+}
@@ -0,0 +1,70 @@
+package com.reactivespring.rsocket;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MoviesInfoRSocketControllerIntgTest {
+
+    @Autowired
+    MovieInfoRepository movieInfoRepository;
+
+    @Autowired
+    RSocketRequester.Builder rSocketRequesterBuilder;
+
+    @LocalRSocketServerPort
+    int rSocketPort;
+
+    private RSocketRequester rSocketRequester;
+
+    @BeforeEach
+    void setUp() {
+        movieInfoRepository
+                .saveAll(List.of(new MovieInfo("abc", "Dark Knight Rises",
+                        2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))))
+                .blockLast();
+        rSocketRequester = rSocketRequesterBuilder.tcp("localhost", rSocketPort);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rSocketRequester.dispose();
+        movieInfoRepository
+                .deleteAll()
+                .block();
+    }
+
+    @Test
+    void testGetMovieInfoById() {
+        var movieInfoFlux = rSocketRequester
+                .route("movieinfos.{id}", "abc")
+                .retrieveFlux(MovieInfo.class);
+
+        StepVerifier.create(movieInfoFlux)
+                .expectNextMatches(movieInfo -> "Dark Knight Rises".equals(movieInfo.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetMovieInfoById_notFound() {
+        var movieInfoFlux = rSocketRequester
+                .route("movieinfos.{id}", "def")
+                .retrieveFlux(MovieInfo.class);
+
+        StepVerifier.create(movieInfoFlux)
+                .verifyComplete();
+    }
+}
@@ -1,13 +1,22 @@
 package com.reactivespring.controller;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoIngestEvent;
+import com.reactivespring.domain.MovieInfoPage;
+import com.reactivespring.service.MovieInfoExportService;
+import com.reactivespring.service.MovieInfoIngestService;
 import com.reactivespring.service.MoviesInfoService;
+import com.reactivespring.tracing.SignalTracer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,10 +27,13 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(MoviesInfoController.class)
 @AutoConfigureWebTestClient
+@Import(SignalTracer.class)
 class MoviesInfoControllerUnitTest {
 
     @Autowired
@@ -30,6 +42,12 @@ class MoviesInfoControllerUnitTest {
     @MockBean
     private MoviesInfoService moviesInfoServiceMock;
 
+    @MockBean
+    private MovieInfoIngestService movieInfoIngestServiceMock;
+
+    @MockBean
+    private MovieInfoExportService movieInfoExportServiceMock;
+
     private final static String MOVIES_INFO_CONTEXT_PATH = "/v1/movieinfos";
 
     private final MovieInfo movieInfo = new MovieInfo("abc", "Dark Knight Rises",
@@ -55,6 +73,87 @@ class MoviesInfoControllerUnitTest {
                 .isEqualTo(movieInfo);
     }
 
+    @Test
+    void bulkAddMovieInfos() {
+        when(movieInfoIngestServiceMock.ingest(any())).thenReturn(Flux.just(
+                MovieInfoIngestEvent.failure(2, "abc", "duplicate key"),
+                MovieInfoIngestEvent.summary(2, 1, 1)));
+        webTestClient
+                .post()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"Batman Begins\"}\n{\"movieInfoId\":\"abc\"}")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieInfoIngestEvent.class)
+                .contains(MovieInfoIngestEvent.summary(2, 1, 1))
+                .hasSize(2);
+    }
+
+    @Test
+    void exportMovieInfos() {
+        when(movieInfoExportServiceMock.exportMovieInfos(false))
+                .thenReturn(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"movieInfoId\":\"abc\"}\n".getBytes())));
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/export")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .expectHeader()
+                .doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectBody(String.class)
+                .isEqualTo("{\"movieInfoId\":\"abc\"}\n");
+    }
+
+    @Test
+    void exportMovieInfosWithGzip() {
+        when(movieInfoExportServiceMock.exportMovieInfos(true)).thenReturn(Flux.empty());
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader()
+                .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void exportMovieInfosWithGzipRefused() {
+        when(movieInfoExportServiceMock.exportMovieInfos(false)).thenReturn(Flux.empty());
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0, *;q=0.5")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .doesNotExist(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    @Test
+    void exportMovieInfosWithWildcardEncoding() {
+        when(movieInfoExportServiceMock.exportMovieInfos(true)).thenReturn(Flux.empty());
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, *;q=0.1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+
     @Test
     void getAllMovieInfos() {
         when(moviesInfoServiceMock.getAllMovieInfos()).thenReturn(Flux.just(movieInfo, movieInfo1));
@@ -62,10 +161,28 @@ class MoviesInfoControllerUnitTest {
                 .get()
                 .uri(MOVIES_INFO_CONTEXT_PATH)
                 .exchange()
+                .expectHeader()
+                .doesNotExist(HttpHeaders.ETAG)
                 .expectBodyList(MovieInfo.class)
                 .hasSize(2);
     }
 
+    @Test
+    void getAllMovieInfosWithLimitIsPaged() {
+        when(moviesInfoServiceMock.getMovieInfosPage(any(), any(), isNull(), eq(1)))
+                .thenReturn(Mono.just(new MovieInfoPage(Flux.just(movieInfo), "v3", "ZGVm")));
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?limit=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(MoviesInfoController.NEXT_CURSOR_HEADER, "ZGVm")
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
     @Test
     void getMovieInfoById() {
         when(moviesInfoServiceMock.getMovieInfoById(any())).thenReturn(Mono.just(movieInfo));
@@ -81,6 +198,87 @@ class MoviesInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void getAllMovieInfosPageNotModified() {
+        when(moviesInfoServiceMock.getMovieInfosPage(any(), any(), isNull(), eq(100)))
+                .thenReturn(Mono.just(new MovieInfoPage(Flux.just(movieInfo, movieInfo1), "v1", null)));
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?limit=100")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\"")
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    void getAllMovieInfosWithNextCursor() {
+        when(moviesInfoServiceMock.getMovieInfosPage(any(), any(), eq("YWJj"), eq(500)))
+                .thenReturn(Mono.just(new MovieInfoPage(Flux.just(movieInfo), "v2", "ZGVm")));
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "?cursor=YWJj&limit=100000")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(MoviesInfoController.NEXT_CURSOR_HEADER, "ZGVm")
+                .expectBodyList(MovieInfo.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void searchMovieInfos() {
+        when(moviesInfoServiceMock.searchMovieInfos("dark", 100)).thenReturn(Flux.just(movieInfo, movieInfo1));
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/search?q=dark&limit=1000")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void searchMovieInfosWithoutQuery() {
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/search")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void getMovieInfoByIdWithETag() {
+        var versionedMovieInfo = new MovieInfo(MOVIE_ID, "Dark Knight Rises",
+                2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"), 3L);
+        when(moviesInfoServiceMock.getMovieInfoById(any())).thenReturn(Mono.just(versionedMovieInfo));
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", MOVIE_ID)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"abc-3\"")
+                .expectHeader()
+                .valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate");
+
+        webTestClient
+                .get()
+                .uri(MOVIES_INFO_CONTEXT_PATH + "/{id}", MOVIE_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc-3\"")
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+    }
+
     @Test
     void updateMovieInfo() {
         when(moviesInfoServiceMock.updateMovieInfo(any(), any())).thenReturn(Mono.just(movieInfo1));
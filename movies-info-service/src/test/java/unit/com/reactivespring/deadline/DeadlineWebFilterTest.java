@@ -0,0 +1,63 @@
+package com.reactivespring.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeadlineWebFilterTest {
+
+    private final DeadlineWebFilter deadlineWebFilter = new DeadlineWebFilter();
+
+    @Test
+    void expiredBudgetIsAnsweredWithoutCallingTheHandler() {
+        var exchange = exchange("0");
+
+        StepVerifier.create(deadlineWebFilter.filter(exchange, ex -> Mono.error(new IllegalStateException())))
+                .verifyComplete();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void handlerThatHasNotStartedRespondingInTimeIsCancelled() {
+        var exchange = exchange("100");
+
+        StepVerifier.create(deadlineWebFilter.filter(exchange, ex -> Mono.delay(Duration.ofSeconds(5)).then()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void streamThatAlreadyStartedOutlivesTheBudget() {
+        var exchange = exchange("100");
+        var lines = Flux.interval(Duration.ofMillis(50))
+                .take(6)
+                .map(line -> DefaultDataBufferFactory.sharedInstance.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+
+        StepVerifier.create(deadlineWebFilter.filter(exchange, ex -> ex.getResponse().writeWith(lines)))
+                .verifyComplete();
+
+        assertNull(exchange.getResponse().getStatusCode());
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .expectNext("0\n1\n2\n3\n4\n5\n")
+                .verifyComplete();
+    }
+
+    private static MockServerWebExchange exchange(String requestTimeoutMs) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/v1/movieinfos/abc")
+                .header(DeadlineWebFilter.TIMEOUT_HEADER, requestTimeoutMs));
+    }
+}
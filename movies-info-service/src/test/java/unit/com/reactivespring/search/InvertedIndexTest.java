@@ -0,0 +1,73 @@
+package com.reactivespring.search;
+
+import com.reactivespring.domain.MovieInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex invertedIndex = new InvertedIndex();
+
+    @BeforeEach
+    void setUp() {
+        invertedIndex.put(new MovieInfo("1", "Batman Begins",
+                2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")));
+        invertedIndex.put(new MovieInfo("2", "The Dark Knight",
+                2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")));
+        invertedIndex.put(new MovieInfo("3", "Dark Knight Rises",
+                2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")));
+        invertedIndex.put(new MovieInfo("4", "Amélie",
+                2001, List.of("Audrey Tautou"), LocalDate.parse("2001-04-25")));
+    }
+
+    @Test
+    void searchIsCaseFoldedAndAccentInsensitive() {
+        assertEquals(List.of("4"), ids(invertedIndex.search("AMELIE", 10)));
+    }
+
+    @Test
+    void everyTokenMustMatchAndTheLastCanBeAPrefix() {
+        assertEquals(List.of("3", "2"), ids(invertedIndex.search("dark kni", 10)));
+        assertEquals(List.of("3"), ids(invertedIndex.search("dark hardy", 10)));
+        assertTrue(invertedIndex.search("dark cane", 10).isEmpty());
+    }
+
+    @Test
+    void nameAndExactMatchesRankFirst() {
+        invertedIndex.put(new MovieInfo("5", "Bale",
+                2020, List.of("Someone Else"), LocalDate.parse("2020-01-01")));
+
+        var results = ids(invertedIndex.search("bale", 10));
+
+        assertEquals("5", results.get(0));
+        assertEquals(4, results.size());
+    }
+
+    @Test
+    void searchHonoursLimit() {
+        assertEquals(2, invertedIndex.search("christian", 2).size());
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceTerms() {
+        invertedIndex.put(new MovieInfo("1", "Batman Returns",
+                1992, List.of("Michael Keaton"), LocalDate.parse("1992-06-19")));
+        invertedIndex.remove("3");
+
+        assertTrue(invertedIndex.search("begins", 10).isEmpty());
+        assertEquals(List.of("1"), ids(invertedIndex.search("keaton", 10)));
+        assertEquals(List.of("2"), ids(invertedIndex.search("knight", 10)));
+        assertEquals(3, invertedIndex.size());
+    }
+
+    private static List<String> ids(List<MovieInfo> movieInfos) {
+        return movieInfos.stream().map(MovieInfo::getMovieInfoId).collect(Collectors.toList());
+    }
+}
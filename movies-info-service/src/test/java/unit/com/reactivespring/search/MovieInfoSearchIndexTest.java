@@ -0,0 +1,73 @@
+package com.reactivespring.search;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovieInfoSearchIndexTest {
+
+    private final MovieInfoRepository movieInfoRepository = mock(MovieInfoRepository.class);
+
+    private final MovieInfoSearchIndex movieInfoSearchIndex = new MovieInfoSearchIndex(movieInfoRepository, Duration.ZERO);
+
+    private final MovieInfo batmanBegins = new MovieInfo("1", "Batman Begins",
+            2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+
+    private final MovieInfo darkKnight = new MovieInfo("2", "The Dark Knight",
+            2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18"));
+
+    @Test
+    void deleteDuringRebuildIsNotUndoneByTheStaleRead() {
+        movieInfoSearchIndex.index(batmanBegins);
+        movieInfoSearchIndex.index(darkKnight);
+        Sinks.Many<MovieInfo> findAll = Sinks.many().unicast().onBackpressureBuffer();
+        when(movieInfoRepository.findAll()).thenReturn(findAll.asFlux());
+
+        StepVerifier.create(movieInfoSearchIndex.rebuild())
+                .then(() -> {
+                    findAll.tryEmitNext(darkKnight);
+                    movieInfoSearchIndex.remove("1");
+                    findAll.tryEmitNext(batmanBegins);
+                    findAll.tryEmitComplete();
+                })
+                .verifyComplete();
+
+        assertTrue(movieInfoSearchIndex.search("batman", 10).isEmpty());
+        assertEquals(List.of("2"), ids(movieInfoSearchIndex.search("bale", 10)));
+    }
+
+    @Test
+    void updateDuringRebuildIsNotUndoneByTheStaleRead() {
+        movieInfoSearchIndex.index(batmanBegins);
+        Sinks.Many<MovieInfo> findAll = Sinks.many().unicast().onBackpressureBuffer();
+        when(movieInfoRepository.findAll()).thenReturn(findAll.asFlux());
+
+        StepVerifier.create(movieInfoSearchIndex.rebuild())
+                .then(() -> {
+                    movieInfoSearchIndex.index(new MovieInfo("1", "Batman Returns",
+                            1992, List.of("Michael Keaton"), LocalDate.parse("1992-06-19")));
+                    findAll.tryEmitNext(batmanBegins);
+                    findAll.tryEmitComplete();
+                })
+                .verifyComplete();
+
+        assertTrue(movieInfoSearchIndex.search("begins", 10).isEmpty());
+        assertEquals(List.of("1"), ids(movieInfoSearchIndex.search("batman returns", 10)));
+    }
+
+    private static List<String> ids(List<MovieInfo> movieInfos) {
+        return movieInfos.stream().map(MovieInfo::getMovieInfoId).collect(Collectors.toList());
+    }
+}
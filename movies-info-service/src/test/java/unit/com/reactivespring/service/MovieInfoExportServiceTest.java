@@ -0,0 +1,123 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovieInfoExportServiceTest {
+
+    private final MovieInfoRepository movieInfoRepository = mock(MovieInfoRepository.class);
+
+    private MovieInfoExportService movieInfoExportService;
+
+    @BeforeEach
+    void setUp() {
+        movieInfoExportService = new MovieInfoExportService(movieInfoRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(movieInfoExportService, "parallelism", 3);
+        ReflectionTestUtils.setField(movieInfoExportService, "chunkSize", 2);
+
+        when(movieInfoRepository.findRangeBoundaries(3)).thenReturn(Flux.just("b", "d"));
+        when(movieInfoRepository.findBetween(isNull(), isNull(), isNull(), eq("b")))
+                .thenReturn(Flux.just(movieInfo("a"), movieInfo("b")));
+        when(movieInfoRepository.findBetween(isNull(), isNull(), eq("b"), eq("d")))
+                .thenReturn(Flux.just(movieInfo("c"), movieInfo("d")));
+        when(movieInfoRepository.findBetween(isNull(), isNull(), eq("d"), isNull()))
+                .thenReturn(Flux.just(movieInfo("e")));
+    }
+
+    @Test
+    void everyRangeIsExportedAsOneLinePerMovieInfo() {
+        var lines = lines(export(false));
+
+        assertEquals(5, lines.size());
+        assertEquals(Set.of("a", "b", "c", "d", "e"), ids(lines));
+    }
+
+    @Test
+    void gzipExportDecompressesToTheSameLines() {
+        var compressed = export(true);
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(Set.of("a", "b", "c", "d", "e"), ids(lines(gzip.readAllBytes())));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Test
+    void nonPositiveParallelismScansTheCatalogAsOneRange() {
+        ReflectionTestUtils.setField(movieInfoExportService, "parallelism", 0);
+        when(movieInfoRepository.findRangeBoundaries(1)).thenReturn(Flux.empty());
+        when(movieInfoRepository.findBetween(isNull(), isNull(), isNull(), isNull()))
+                .thenReturn(Flux.just(movieInfo("a"), movieInfo("b")));
+
+        assertEquals(Set.of("a", "b"), ids(lines(export(false))));
+    }
+
+    @Test
+    void anEmptyCatalogIsStillAValidGzipStream() throws IOException {
+        when(movieInfoRepository.findRangeBoundaries(3)).thenReturn(Flux.empty());
+        when(movieInfoRepository.findBetween(any(), any(), any(), any())).thenReturn(Flux.empty());
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(export(true)))) {
+            assertEquals(0, gzip.readAllBytes().length);
+        }
+    }
+
+    private byte[] export(boolean gzip) {
+        return DataBufferUtils.join(movieInfoExportService.exportMovieInfos(gzip))
+                .map(dataBuffer -> {
+                    var bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .block();
+    }
+
+    private static List<String> lines(byte[] ndjson) {
+        return Arrays.stream(new String(ndjson, StandardCharsets.UTF_8).split("\n"))
+                .filter(line -> !line.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private Set<String> ids(List<String> lines) {
+        return lines.stream()
+                .map(line -> {
+                    try {
+                        return new ObjectMapper().readTree(line).get("movieInfoId").asText();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                })
+                .collect(Collectors.toSet());
+    }
+
+    private static MovieInfo movieInfo(String id) {
+        return new MovieInfo(id, "Movie " + id, 2005, List.of("Christian Bale"), null, 0L);
+    }
+}
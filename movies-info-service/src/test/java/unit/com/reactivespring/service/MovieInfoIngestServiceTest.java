@@ -0,0 +1,104 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoIngestEvent;
+import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.search.MovieInfoSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.validation.Validation;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieInfoIngestServiceTest {
+
+    private final MovieInfoRepository movieInfoRepository = mock(MovieInfoRepository.class);
+
+    private final MovieInfoSearchIndex movieInfoSearchIndex = mock(MovieInfoSearchIndex.class);
+
+    private MovieInfoIngestService movieInfoIngestService;
+
+    @BeforeEach
+    void setUp() {
+        movieInfoIngestService = new MovieInfoIngestService(movieInfoRepository, movieInfoSearchIndex,
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(movieInfoIngestService, "batchSize", 2);
+        ReflectionTestUtils.setField(movieInfoIngestService, "concurrency", 1);
+    }
+
+    @Test
+    void invalidLinesAreReportedAndTheRestAreInsertedInBatches() {
+        when(movieInfoRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<MovieInfo> movieInfos = invocation.getArgument(0);
+            movieInfos.forEach(movieInfo -> movieInfo.setMovieInfoId(movieInfo.getName()));
+            return Mono.just(Map.of());
+        });
+
+        var lines = Flux.just(
+                "{\"name\":\"Batman Begins\",\"year\":2005,\"cast\":[\"Christian Bale\"]}",
+                "not json",
+                "{\"name\":\"The Dark Knight\",\"year\":-2008,\"cast\":[\"\"]}",
+                "  ",
+                "{\"name\":\"Dark Knight Rises\",\"year\":2012,\"cast\":[\"Tom Hardy\"],\"releaseDate\":\"2012-07-20\"}");
+
+        StepVerifier.create(movieInfoIngestService.ingest(lines))
+                .assertNext(ingestEvent -> assertEquals(2L, ingestEvent.getLine()))
+                .assertNext(ingestEvent -> assertEquals(
+                        MovieInfoIngestEvent.failure(3, null, "movieInfo.cast must be present, movieInfo.year must be a positive value"),
+                        ingestEvent))
+                .expectNext(MovieInfoIngestEvent.summary(4, 2, 2))
+                .verifyComplete();
+
+        verify(movieInfoRepository, times(2)).insertUnordered(anyList());
+        verify(movieInfoSearchIndex, times(2)).index(any());
+    }
+
+    @Test
+    void writeErrorsFailOnlyTheirLines() {
+        when(movieInfoRepository.insertUnordered(anyList()))
+                .thenReturn(Mono.just(Map.of(1, "E11000 duplicate key error")));
+
+        var lines = Flux.just(
+                "{\"movieInfoId\":\"a\",\"name\":\"Batman Begins\",\"year\":2005,\"cast\":[\"Christian Bale\"]}",
+                "{\"movieInfoId\":\"b\",\"name\":\"The Dark Knight\",\"year\":2008,\"cast\":[\"HeathLedger\"]}");
+
+        StepVerifier.create(movieInfoIngestService.ingest(lines))
+                .expectNext(MovieInfoIngestEvent.failure(2, "b", "E11000 duplicate key error"))
+                .expectNext(MovieInfoIngestEvent.summary(2, 1, 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void aFailedBatchFailsEachOfItsLinesWithoutEndingTheStream() {
+        when(movieInfoRepository.insertUnordered(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("connection refused")))
+                .thenReturn(Mono.just(Map.of()));
+
+        var lines = Flux.just(
+                "{\"name\":\"Batman Begins\",\"year\":2005,\"cast\":[\"Christian Bale\"]}",
+                "{\"name\":\"The Dark Knight\",\"year\":2008,\"cast\":[\"HeathLedger\"]}",
+                "{\"name\":\"Dark Knight Rises\",\"year\":2012,\"cast\":[\"Tom Hardy\"]}");
+
+        StepVerifier.create(movieInfoIngestService.ingest(lines))
+                .expectNext(MovieInfoIngestEvent.failure(1, null, "connection refused"))
+                .expectNext(MovieInfoIngestEvent.failure(2, null, "connection refused"))
+                .expectNext(MovieInfoIngestEvent.summary(3, 1, 2))
+                .verifyComplete();
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeoutException;
+
 @Component
 @Slf4j
 public class GlobalErrorHandler implements ErrorWebExceptionHandler {
@@ -21,6 +23,7 @@ public class GlobalErrorHandler implements ErrorWebExceptionHandler {
         var errMsg = dataBufferFactory.wrap(ex.getMessage().getBytes());
         if (ex instanceof ReviewDataException) exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
         else if (ex instanceof ReviewNotFoundException) exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+        else if (ex instanceof TimeoutException) exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
         else exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
 
         return exchange.getResponse().writeWith(Mono.just(errMsg));
@@ -0,0 +1,135 @@
+package com.reactivespring.feed;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Slf4j
+public class ReviewFeed implements SmartInitializingSingleton {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private CollectionOptions eventsCollectionOptions;
+
+    private Duration reconnectDelay;
+
+    private int subscriberBufferSize;
+
+    private Counter droppedReviews;
+
+    private AtomicBoolean eventsCollectionCreated = new AtomicBoolean();
+
+    private Flux<ReviewEvent> reviewEvents;
+
+    public ReviewFeed(ReactiveMongoTemplate reactiveMongoTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${reviews.feed.cappedSizeBytes:16777216}") long cappedSizeBytes,
+                      @Value("${reviews.feed.cappedMaxDocuments:100000}") long cappedMaxDocuments,
+                      @Value("${reviews.feed.reconnectDelay:500ms}") Duration reconnectDelay,
+                      @Value("${reviews.feed.subscriberBufferSize:256}") int subscriberBufferSize) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.eventsCollectionOptions = CollectionOptions.empty()
+                .capped()
+                .size(cappedSizeBytes)
+                .maxDocuments(cappedMaxDocuments);
+        this.reconnectDelay = reconnectDelay;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.droppedReviews = Counter.builder("reviews.feed.dropped")
+                .description("Reviews dropped from a slow subscriber's feed buffer")
+                .register(meterRegistry);
+        // a single tailable cursor per instance, opened by the first subscriber and closed after the last one leaves
+        this.reviewEvents = Flux.defer(this::tailFromLatest).share();
+    }
+
+    // tailable cursors only work on capped collections, so it has to exist before the first review is inserted; this
+    // runs before the web server is started by the context lifecycle, like MovieInfoIndexes in movies-info-service
+    @Override
+    public void afterSingletonsInstantiated() {
+        createEventsCollection()
+                .onErrorResume(ex -> Mono.empty())
+                .block(Duration.ofSeconds(30));
+    }
+
+    // an insert into a missing collection would create it uncapped, so publish retries the creation until it succeeds
+    public Mono<Void> createEventsCollection() {
+        if (eventsCollectionCreated.get()) return Mono.empty();
+        return reactiveMongoTemplate.collectionExists(ReviewEvent.class)
+                .flatMap(exists -> exists ?
+                        Mono.<Void>empty() :
+                        reactiveMongoTemplate.createCollection(ReviewEvent.class, eventsCollectionOptions).then())
+                .doOnSuccess(created -> eventsCollectionCreated.set(true))
+                .doOnError(ex -> log.warn("Could not create the capped review events collection : {}", ex.getMessage()));
+    }
+
+    public Mono<Review> publish(Review review) {
+        return createEventsCollection()
+                .then(reactiveMongoTemplate.insert(new ReviewEvent(null, review.getMovieInfoId(), review)))
+                .thenReturn(review)
+                .doOnError(ex -> log.warn("Could not publish review {} to the feed : {}", review.getReviewId(), ex.getMessage()))
+                .onErrorReturn(review);
+    }
+
+    // each subscriber drains the shared feed into its own bounded buffer, a slow client loses its oldest
+    // reviews instead of holding back the cursor for everyone else
+    public Flux<Review> reviews(Long movieInfoId) {
+        return reviewEvents
+                .filter(reviewEvent -> Objects.isNull(movieInfoId) || movieInfoId.equals(reviewEvent.getMovieInfoId()))
+                .map(ReviewEvent::getReview)
+                .onBackpressureBuffer(subscriberBufferSize, review -> droppedReviews.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    // the cursor dies when nothing matches yet and after network errors, so it is reopened after the last event seen
+    private Flux<ReviewEvent> tailFromLatest() {
+        var lastSeenId = new AtomicReference<ObjectId>();
+        var tailing = Flux.defer(() -> tail(lastSeenId.get()))
+                .doOnNext(reviewEvent -> lastSeenId.set(reviewEvent.getId()))
+                .repeatWhen(completed -> completed.delayElements(reconnectDelay))
+                .retryWhen(reopenCursor());
+
+        return latestEventId()
+                .retryWhen(reopenCursor())
+                .doOnNext(lastSeenId::set)
+                .thenMany(tailing);
+    }
+
+    private Retry reopenCursor() {
+        return Retry.backoff(Long.MAX_VALUE, reconnectDelay)
+                .maxBackoff(Duration.ofSeconds(10))
+                .doBeforeRetry(retrySignal -> log.warn("Review feed cursor failed, reopening : {}",
+                        retrySignal.failure().getMessage()));
+    }
+
+    private Mono<ObjectId> latestEventId() {
+        var query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        return reactiveMongoTemplate.findOne(query, ReviewEvent.class)
+                .map(ReviewEvent::getId);
+    }
+
+    private Flux<ReviewEvent> tail(ObjectId lastSeenId) {
+        var query = Objects.isNull(lastSeenId) ?
+                new Query() :
+                Query.query(Criteria.where("_id").gt(lastSeenId));
+        return reactiveMongoTemplate.tail(query, ReviewEvent.class);
+    }
+}
@@ -1,19 +1,29 @@
 package com.reactivespring.handler;
 
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.exception.ReviewDataException;
 import com.reactivespring.exception.ReviewNotFoundException;
+import com.reactivespring.feed.ReviewFeed;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.tracing.SignalTracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
+import java.time.Duration;
 import java.util.stream.Collectors;
 
 
@@ -26,8 +36,17 @@ public class ReviewHandler {
 
     private ReviewReactiveRepository reviewReactiveRepository;
 
-    public ReviewHandler(ReviewReactiveRepository reviewReactiveRepository) {
+    private ReviewFeed reviewFeed;
+
+    private SignalTracer signalTracer;
+
+    @Value("${reviews.feed.heartbeatInterval:15s}")
+    private Duration heartbeatInterval;
+
+    public ReviewHandler(ReviewReactiveRepository reviewReactiveRepository, ReviewFeed reviewFeed, SignalTracer signalTracer) {
         this.reviewReactiveRepository = reviewReactiveRepository;
+        this.reviewFeed = reviewFeed;
+        this.signalTracer = signalTracer;
     }
 
     public Mono<ServerResponse> addReview(ServerRequest serverRequest) {
@@ -35,8 +54,9 @@ public class ReviewHandler {
                 .bodyToMono(Review.class)
                 .doOnNext(this::validate)
                 .flatMap(review -> reviewReactiveRepository.save(review))
+                .flatMap(savedReview -> reviewFeed.publish(savedReview))
                 .flatMap(savedReview -> ServerResponse.status(HttpStatus.CREATED).bodyValue(savedReview))
-                .log();
+                .transform(signalTracer.mono("reviewHandler.addReview"));
     }
 
     private void validate(Review review) {
@@ -52,13 +72,52 @@ public class ReviewHandler {
         }
     }
 
+    // JSON or Smile depending on Accept, so the responses vary by it
     public Mono<ServerResponse> getAllReviews(ServerRequest serverRequest) {
         var movieInfoId = serverRequest.queryParam("movieInfoId");
         var reviewsFlux = movieInfoId.isPresent() ?
                 reviewReactiveRepository.findReviewsByMovieInfoId(Long.valueOf(movieInfoId.get())) :
                 reviewReactiveRepository.findAll();
 
-        return ServerResponse.ok().body(reviewsFlux, Review.class);
+        return ServerResponse.ok().varyBy(HttpHeaders.ACCEPT).body(reviewsFlux, Review.class);
+    }
+
+    public Mono<ServerResponse> getReviewSummary(ServerRequest serverRequest) {
+        var movieInfoId = serverRequest.queryParam("movieInfoId")
+                .orElseThrow(() -> new ReviewDataException("movieInfoId must be present"));
+        var reviewSummaryMono = reviewReactiveRepository.summarizeReviewsByMovieInfoId(parseMovieInfoId(movieInfoId));
+
+        return ServerResponse.ok().varyBy(HttpHeaders.ACCEPT).body(reviewSummaryMono, ReviewSummary.class);
+    }
+
+    // new reviews are pushed as they are inserted instead of clients polling getAllReviews, the heartbeat comments
+    // keep idle connections open through proxies and let the server notice clients that went away
+    public Mono<ServerResponse> streamReviews(ServerRequest serverRequest) {
+        var movieInfoId = serverRequest.queryParam("movieInfoId")
+                .map(this::parseMovieInfoId)
+                .orElse(null);
+
+        var reviewEvents = reviewFeed.reviews(movieInfoId)
+                .map(review -> ServerSentEvent.builder(review)
+                        .id(review.getReviewId())
+                        .event("review")
+                        .build());
+        var heartbeats = Flux.interval(heartbeatInterval)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<Review>builder().comment("heartbeat").build());
+
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(Flux.merge(reviewEvents, heartbeats), new ParameterizedTypeReference<ServerSentEvent<Review>>() {
+                });
+    }
+
+    private long parseMovieInfoId(String movieInfoId) {
+        try {
+            return Long.parseLong(movieInfoId.trim());
+        } catch (NumberFormatException ex) {
+            throw new ReviewDataException("Invalid movieInfoId : " + movieInfoId);
+        }
     }
 
     public Mono<ServerResponse> updateReview(ServerRequest serverRequest) {
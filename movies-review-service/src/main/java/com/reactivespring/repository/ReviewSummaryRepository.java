@@ -0,0 +1,9 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.ReviewSummary;
+import reactor.core.publisher.Mono;
+
+public interface ReviewSummaryRepository {
+
+    Mono<ReviewSummary> summarizeReviewsByMovieInfoId(Long movieInfoId);
+}
@@ -0,0 +1,70 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewSummary;
+import lombok.Data;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+
+public class ReviewSummaryRepositoryImpl implements ReviewSummaryRepository {
+
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewSummaryRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    // mongo groups the reviews into at most one document per star, only those few buckets leave the database
+    @Override
+    public Mono<ReviewSummary> summarizeReviewsByMovieInfoId(Long movieInfoId) {
+        var aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("movieInfoId").is(movieInfoId)),
+                Aggregation.project("rating").and(ArithmeticOperators.Floor.floorValueOf("rating")).as("stars"),
+                Aggregation.group("stars")
+                        .count().as("count")
+                        .sum("rating").as("sum")
+                        .min("rating").as("min")
+                        .max("rating").as("max"));
+
+        return reactiveMongoTemplate.aggregate(aggregation, Review.class, RatingBucket.class)
+                .collectList()
+                .map(ratingBuckets -> summarize(movieInfoId, ratingBuckets));
+    }
+
+    // reviews without a rating only add to the count
+    private static ReviewSummary summarize(Long movieInfoId, List<RatingBucket> ratingBuckets) {
+        var count = 0L;
+        var ratedCount = 0L;
+        var sum = 0d;
+        Double min = null;
+        Double max = null;
+        var ratingHistogram = new TreeMap<Integer, Long>();
+        for (var ratingBucket : ratingBuckets) {
+            count += ratingBucket.getCount();
+            if (Objects.isNull(ratingBucket.getId())) continue;
+            ratedCount += ratingBucket.getCount();
+            sum += ratingBucket.getSum();
+            min = Objects.isNull(min) ? ratingBucket.getMin() : Math.min(min, ratingBucket.getMin());
+            max = Objects.isNull(max) ? ratingBucket.getMax() : Math.max(max, ratingBucket.getMax());
+            ratingHistogram.put(ratingBucket.getId().intValue(), ratingBucket.getCount());
+        }
+        var averageRating = ratedCount == 0 ? null : sum / ratedCount;
+        return new ReviewSummary(movieInfoId, count, averageRating, min, max, ratingHistogram);
+    }
+
+    @Data
+    static class RatingBucket {
+        private Double id;
+        private long count;
+        private double sum;
+        private Double min;
+        private Double max;
+    }
+}
@@ -18,6 +18,8 @@ public class ReviewRouter {
                         builder
                                 .POST("", req -> reviewHandler.addReview(req))
                                 .GET("", req -> reviewHandler.getAllReviews(req))
+                                .GET("/summary", req -> reviewHandler.getReviewSummary(req))
+                                .GET("/stream", req -> reviewHandler.streamReviews(req))
                                 .PUT("/{id}", req -> reviewHandler.updateReview(req))
                                 .DELETE("/{id}", req -> reviewHandler.deleteReview(req)))
                 .GET("/v1/helloworld", req -> ServerResponse.ok().bodyValue("helloworld"))
@@ -0,0 +1,38 @@
+package com.reactivespring.rsocket;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.tracing.SignalTracer;
+import io.rsocket.exceptions.InvalidException;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+@Controller
+public class ReviewRSocketController {
+
+    private ReviewReactiveRepository reviewReactiveRepository;
+
+    private SignalTracer signalTracer;
+
+    public ReviewRSocketController(ReviewReactiveRepository reviewReactiveRepository, SignalTracer signalTracer) {
+        this.reviewReactiveRepository = reviewReactiveRepository;
+        this.signalTracer = signalTracer;
+    }
+
+    // the cursor is only read as fast as the caller's REQUEST_N credits allow
+    @MessageMapping("reviews.{movieInfoId}")
+    public Flux<Review> findReviewsByMovieInfoId(@DestinationVariable Long movieInfoId) {
+        return reviewReactiveRepository.findReviewsByMovieInfoId(movieInfoId)
+                .transform(signalTracer.flux("reviewRSocketController.findReviewsByMovieInfoId"));
+    }
+
+    // a movieInfoId that is not a number is sent back as INVALID, which callers treat as a client error
+    @MessageExceptionHandler(ConversionException.class)
+    public Flux<Review> handleInvalidMovieInfoId(ConversionException ex) {
+        return Flux.error(new InvalidException(ex.getMessage()));
+    }
+}
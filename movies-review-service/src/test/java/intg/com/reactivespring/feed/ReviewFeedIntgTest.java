@@ -0,0 +1,67 @@
+package com.reactivespring.feed;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "reviews.feed.subscriberBufferSize=2")
+@ActiveProfiles("test")
+public class ReviewFeedIntgTest {
+
+    @Autowired
+    ReviewFeed reviewFeed;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Test
+    void eventsCollectionIsCappedOnceTheContextIsUp() {
+        var collectionName = reactiveMongoTemplate.getCollectionName(ReviewEvent.class);
+        StepVerifier.create(reactiveMongoTemplate.executeCommand(new Document("collStats", collectionName)))
+                .assertNext(collStats -> assertTrue(collStats.getBoolean("capped")))
+                .verifyComplete();
+    }
+
+    @Test
+    void reviewsForOtherMoviesAreFilteredOut() {
+        StepVerifier.create(reviewFeed.reviews(7L))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(500))
+                .then(() -> {
+                    reviewFeed.publish(new Review("r1", 8L, "Other Movie", 7.0)).block();
+                    reviewFeed.publish(new Review("r2", 7L, "Awesome Movie", 9.0)).block();
+                })
+                .expectNextMatches(review -> "r2".equals(review.getReviewId()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void slowSubscriberLosesOldestReviews() {
+        StepVerifier.create(reviewFeed.reviews(9L), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(500))
+                .then(() -> {
+                    reviewFeed.publish(new Review("s1", 9L, "First", 6.0)).block();
+                    reviewFeed.publish(new Review("s2", 9L, "Second", 7.0)).block();
+                    reviewFeed.publish(new Review("s3", 9L, "Third", 8.0)).block();
+                })
+                .expectNoEvent(Duration.ofSeconds(1))
+                .thenRequest(2)
+                .expectNextMatches(review -> "s2".equals(review.getReviewId()))
+                .expectNextMatches(review -> "s3".equals(review.getReviewId()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+}
@@ -1,19 +1,26 @@
 package com.reactivespring.routes;
 
+import com.reactivespring.deadline.DeadlineWebFilter;
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.repository.ReviewReactiveRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
@@ -154,5 +161,76 @@ public class ReviewsIntgTest {
                 .expectBody(String.class)
                 .isEqualTo("Review not found for reviewId : abcd");
     }
-}
 
+    @Test
+    @Order(7)
+    void testGetReviewsByMovieInfoIdWithExpiredDeadline() {
+        webTestClient
+                .get()
+                .uri(REVIEWS_CONTEXT_PATH + "?movieInfoId=1")
+                .header(DeadlineWebFilter.TIMEOUT_HEADER, "0")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    @Order(8)
+    void testGetReviewSummary() {
+        reviewReactiveRepository.save(new Review(null, 1L, "Good Movie", 7.5)).block();
+
+        webTestClient
+                .get()
+                .uri(REVIEWS_CONTEXT_PATH + "/summary?movieInfoId=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ReviewSummary.class)
+                .consumeWith(reviewSummaryExchangeResult -> {
+                    var reviewSummary = reviewSummaryExchangeResult.getResponseBody();
+                    assertNotNull(reviewSummary);
+                    assertEquals(3, reviewSummary.getCount());
+                    assertEquals(8.5, reviewSummary.getAverageRating());
+                    assertEquals(7.5, reviewSummary.getMinRating());
+                    assertEquals(9.0, reviewSummary.getMaxRating());
+                    assertEquals(Map.of(7, 1L, 9, 2L), reviewSummary.getRatingHistogram());
+                });
+    }
+
+    @Test
+    @Order(9)
+    void testGetReviewSummaryWithoutReviews() {
+        webTestClient
+                .get()
+                .uri(REVIEWS_CONTEXT_PATH + "/summary?movieInfoId=100")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ReviewSummary.class)
+                .consumeWith(reviewSummaryExchangeResult -> {
+                    var reviewSummary = reviewSummaryExchangeResult.getResponseBody();
+                    assertNotNull(reviewSummary);
+                    assertEquals(0, reviewSummary.getCount());
+                    assertNull(reviewSummary.getAverageRating());
+                });
+    }
+
+    @Test
+    @Order(10)
+    void testGetReviewsByMovieInfoIdAsSmile() {
+        var smile = new MediaType("application", "x-jackson-smile");
+        webTestClient
+                .get()
+                .uri(REVIEWS_CONTEXT_PATH + "?movieInfoId=1")
+                .accept(smile)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(smile)
+                .expectHeader()
+                .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .expectBodyList(Review.class)
+                .hasSize(2);
+    }
+}
@@ -0,0 +1,77 @@
+package com.reactivespring.rsocket;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import io.rsocket.exceptions.InvalidException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ReviewRSocketControllerIntgTest {
+
+    @Autowired
+    ReviewReactiveRepository reviewReactiveRepository;
+
+    @Autowired
+    RSocketRequester.Builder rSocketRequesterBuilder;
+
+    @LocalRSocketServerPort
+    int rSocketPort;
+
+    private RSocketRequester rSocketRequester;
+
+    @BeforeEach
+    void setUp() {
+        var reviewsList = List.of(
+                new Review(null, 1L, "Awesome Movie", 9.0),
+                new Review(null, 1L, "Awesome Movie1", 9.0),
+                new Review(null, 2L, "Excellent Movie", 8.0));
+
+        reviewReactiveRepository
+                .saveAll(reviewsList)
+                .blockLast();
+        rSocketRequester = rSocketRequesterBuilder.tcp("localhost", rSocketPort);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rSocketRequester.dispose();
+        reviewReactiveRepository.deleteAll().block();
+    }
+
+    @Test
+    void testFindReviewsByMovieInfoId() {
+        var reviewFlux = rSocketRequester
+                .route("reviews.{movieInfoId}", 1L)
+                .retrieveFlux(Review.class);
+
+        // request one review at a time to exercise REQUEST_N credits end to end
+        StepVerifier.create(reviewFlux, 1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindReviewsByNonNumericMovieInfoIdIsInvalid() {
+        var reviewFlux = rSocketRequester
+                .route("reviews.{movieInfoId}", "abc")
+                .retrieveFlux(Review.class);
+
+        StepVerifier.create(reviewFlux)
+                .expectError(InvalidException.class)
+                .verify();
+    }
+}
@@ -1,21 +1,27 @@
 package com.reactivespring.routes;
 
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.exceptionhandler.GlobalErrorHandler;
+import com.reactivespring.feed.ReviewFeed;
 import com.reactivespring.handler.ReviewHandler;
 import com.reactivespring.repository.ReviewReactiveRepository;
 import com.reactivespring.router.ReviewRouter;
+import com.reactivespring.tracing.SignalTracer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,13 +29,16 @@ import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest
-@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, GlobalErrorHandler.class})
+@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, GlobalErrorHandler.class, SignalTracer.class})
 @AutoConfigureWebTestClient
 public class ReviewsUnitTest {
 
     @MockBean
     private ReviewReactiveRepository reviewReactiveRepository;
 
+    @MockBean
+    private ReviewFeed reviewFeed;
+
     @Autowired
     WebTestClient webTestClient;
 
@@ -110,4 +119,49 @@ public class ReviewsUnitTest {
                 .exchange()
                 .expectStatus().isNoContent();
     }
+
+    @Test
+    void getReviewSummary() {
+        var reviewSummary = new ReviewSummary(1L, 3, 8.5, 7.5, 9.0, Map.of(7, 1L, 9, 2L));
+        when(reviewReactiveRepository.summarizeReviewsByMovieInfoId(1L)).thenReturn(Mono.just(reviewSummary));
+
+        webTestClient
+                .get()
+                .uri("/v1/reviews/summary?movieInfoId=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReviewSummary.class)
+                .isEqualTo(reviewSummary);
+    }
+
+    @Test
+    void getReviewSummaryWithoutMovieInfoId() {
+        webTestClient
+                .get()
+                .uri("/v1/reviews/summary")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("movieInfoId must be present");
+    }
+
+    @Test
+    void streamReviews() {
+        var review = new Review("abc", 1L, "Awesome Movie", 9.0);
+        when(reviewFeed.reviews(1L)).thenReturn(Flux.just(review).concatWith(Flux.never()));
+
+        var reviewsFlux = webTestClient
+                .get()
+                .uri("/v1/reviews/stream?movieInfoId=1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Review.class)
+                .getResponseBody();
+
+        StepVerifier.create(reviewsFlux)
+                .expectNext(review)
+                .thenCancel()
+                .verify();
+    }
 }
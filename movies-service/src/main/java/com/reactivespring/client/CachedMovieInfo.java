@@ -0,0 +1,28 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieInfo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Objects;
+
+@Data
+@AllArgsConstructor
+public class CachedMovieInfo {
+
+    private MovieInfo movieInfo;
+
+    private String eTag;
+
+    public static CachedMovieInfo found(MovieInfo movieInfo, String eTag) {
+        return new CachedMovieInfo(movieInfo, eTag);
+    }
+
+    public static CachedMovieInfo notFound() {
+        return new CachedMovieInfo(null, null);
+    }
+
+    public boolean isFound() {
+        return Objects.nonNull(movieInfo);
+    }
+}
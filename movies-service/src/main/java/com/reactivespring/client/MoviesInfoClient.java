@@ -0,0 +1,9 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieInfo;
+import reactor.core.publisher.Mono;
+
+public interface MoviesInfoClient {
+
+    Mono<MovieInfo> retrieveMovieInfo(String movieId);
+}
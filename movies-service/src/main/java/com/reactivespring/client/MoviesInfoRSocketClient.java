@@ -0,0 +1,88 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.resilience.DownstreamResilience;
+import com.reactivespring.resilience.ResilienceRegistry;
+import com.reactivespring.tracing.SignalTracer;
+import com.reactivespring.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.exceptions.InvalidException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+
+// restClient.transport=RSOCKET puts this in front of MoviesInfoRestClient. Lookups keep the breaker, retries, deadline
+// and single-flight, but have no Caffeine cache or ETag revalidation, no per-downstream HTTP metrics and no Smile wire
+// format, and neither the deadline nor the request id is forwarded to the movie info service
+@Component
+@Primary
+@ConditionalOnProperty(name = "restClient.transport", havingValue = "RSOCKET")
+public class MoviesInfoRSocketClient implements MoviesInfoClient {
+
+    private RSocketRequester rSocketRequester;
+
+    private DownstreamResilience moviesInfoResilience;
+
+    private SignalTracer signalTracer;
+
+    private boolean singleFlightEnabled;
+
+    private SingleFlight<String, MovieInfo> movieInfoSingleFlight;
+
+    // one lazily connected requester, every lookup is a stream multiplexed over the same TCP connection
+    public MoviesInfoRSocketClient(RSocketRequester.Builder rSocketRequesterBuilder,
+                                   ResilienceRegistry resilienceRegistry,
+                                   MeterRegistry meterRegistry,
+                                   SignalTracer signalTracer,
+                                   @Value("${restClient.moviesInfoRSocketUrl}") URI moviesInfoRSocketUrl,
+                                   @Value("${restClient.singleFlight.enabled:true}") boolean singleFlightEnabled) {
+        this.rSocketRequester = rSocketRequesterBuilder.tcp(moviesInfoRSocketUrl.getHost(), moviesInfoRSocketUrl.getPort());
+        this.moviesInfoResilience = resilienceRegistry.forDownstream("moviesInfo");
+        this.signalTracer = signalTracer;
+        this.singleFlightEnabled = singleFlightEnabled;
+        this.movieInfoSingleFlight = new SingleFlight<>("movieInfoRSocket", meterRegistry);
+    }
+
+    @Override
+    public Mono<MovieInfo> retrieveMovieInfo(String movieId) {
+        if (!singleFlightEnabled) return fetchMovieInfo(movieId);
+        return movieInfoSingleFlight.execute(movieId, () -> fetchMovieInfo(movieId))
+                .transform(moviesInfoResilience::withinDeadline);
+    }
+
+    private Mono<MovieInfo> fetchMovieInfo(String movieId) {
+        return rSocketRequester
+                .route("movieinfos.{id}", movieId)
+                .retrieveFlux(MovieInfo.class)
+                .next()
+                .onErrorMap(this::toMoviesInfoException)
+                .switchIfEmpty(Mono.error(() -> new MoviesInfoClientException(
+                        "No Movie available for passed movieId : " + movieId, HttpStatus.NOT_FOUND.value())))
+                .transform(moviesInfoResilience::decorate)
+                .transform(signalTracer.mono("moviesInfoRSocketClient.retrieveMovieInfo"));
+    }
+
+    // the exceptions MoviesInfoRestClient raises for the matching HTTP statuses: an unknown id is an empty stream and
+    // so a 404 above, a request rejected as INVALID is a 400 and is not retried, any other error frame or a lost
+    // connection is a retryable server error
+    private Throwable toMoviesInfoException(Throwable ex) {
+        if (ex instanceof InvalidException) {
+            return new MoviesInfoClientException(ex.getMessage(), HttpStatus.BAD_REQUEST.value());
+        }
+        return new MoviesInfoServerException("Server exception in MovieInfoService : " + ex.getMessage());
+    }
+
+    @PreDestroy
+    public void dispose() {
+        rSocketRequester.dispose();
+    }
+}
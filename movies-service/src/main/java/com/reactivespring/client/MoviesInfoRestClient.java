@@ -1,44 +1,195 @@
 package com.reactivespring.client;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.reactivespring.config.WebClientProperties;
+import com.reactivespring.deadline.Deadline;
 import com.reactivespring.domain.MovieInfo;
 import com.reactivespring.exception.MoviesInfoClientException;
 import com.reactivespring.exception.MoviesInfoServerException;
-import com.reactivespring.util.RetryUtils;
+import com.reactivespring.metrics.DownstreamMetrics;
+import com.reactivespring.resilience.DownstreamResilience;
+import com.reactivespring.resilience.ResilienceRegistry;
+import com.reactivespring.tracing.SignalTracer;
+import com.reactivespring.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Component
-public class MoviesInfoRestClient {
+public class MoviesInfoRestClient implements MoviesInfoClient {
 
     private WebClient webClient;
 
-    public MoviesInfoRestClient(WebClient webClient) { this.webClient = webClient; }
+    private MediaType wireMediaType;
+
+    private boolean cacheEnabled;
+
+    private boolean singleFlightEnabled;
+
+    private SingleFlight<String, MovieInfo> movieInfoSingleFlight;
+
+    private AsyncLoadingCache<String, CachedMovieInfo> movieInfoCache;
+
+    private Duration loadTimeout;
+
+    private DownstreamResilience moviesInfoResilience;
+
+    private SignalTracer signalTracer;
+
+    private Counter notModifiedRevalidations;
+
+    private Counter modifiedRevalidations;
+
+    public MoviesInfoRestClient(WebClient webClient,
+                                WebClientProperties webClientProperties,
+                                DownstreamMetrics downstreamMetrics,
+                                MeterRegistry meterRegistry,
+                                ResilienceRegistry resilienceRegistry,
+                                SignalTracer signalTracer,
+                                @Value("${restClient.moviesInfoCache.enabled:true}") boolean cacheEnabled,
+                                @Value("${restClient.moviesInfoCache.maximumSize:10000}") long maximumSize,
+                                @Value("${restClient.moviesInfoCache.refreshAfter:5m}") Duration refreshAfter,
+                                @Value("${restClient.moviesInfoCache.expireAfter:1h}") Duration expireAfter,
+                                @Value("${restClient.moviesInfoCache.notFoundExpireAfter:30s}") Duration notFoundExpireAfter,
+                                @Value("${restClient.moviesInfoCache.loadTimeout:5s}") Duration loadTimeout,
+                                @Value("${restClient.singleFlight.enabled:true}") boolean singleFlightEnabled) {
+        this.webClient = webClient.mutate()
+                .filter(downstreamMetrics.instrument("moviesInfo"))
+                .build();
+        this.wireMediaType = webClientProperties.getWireFormat().getMediaType();
+        this.cacheEnabled = cacheEnabled;
+        this.loadTimeout = loadTimeout;
+        this.singleFlightEnabled = singleFlightEnabled;
+        this.movieInfoSingleFlight = new SingleFlight<>("movieInfo", meterRegistry);
+        this.moviesInfoResilience = resilienceRegistry.forDownstream("moviesInfo");
+        this.signalTracer = signalTracer;
+        this.notModifiedRevalidations = revalidationCounter(meterRegistry, "not_modified");
+        this.modifiedRevalidations = revalidationCounter(meterRegistry, "modified");
+        // entries older than refreshAfter are still served while a single background reload replaces them,
+        // the reload sends the cached ETag and an unchanged movie info comes back as a bodiless 304
+        this.movieInfoCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new MovieInfoExpiry(expireAfter, notFoundExpireAfter))
+                .refreshAfterWrite(refreshAfter)
+                .recordStats()
+                .buildAsync(new MovieInfoLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, movieInfoCache, "movieInfo");
+    }
 
     @Value("${restClient.moviesInfoUrl}")
     private String moviesInfoUrl;
 
+    @Override
     public Mono<MovieInfo> retrieveMovieInfo(String movieId) {
+        if (!cacheEnabled) return retrieveMovieInfoFromServer(movieId);
+
+        // subscribe to a copy so that a cancelled caller never cancels the future shared through the cache;
+        // the caller stops waiting at its own deadline while the load carries on to fill the cache for the others
+        return Mono.fromFuture(() -> movieInfoCache.get(movieId).copy())
+                .transform(moviesInfoResilience::withinDeadline)
+                .flatMap(cachedMovieInfo -> cachedMovieInfo.isFound() ?
+                        Mono.just(cachedMovieInfo.getMovieInfo()) :
+                        Mono.error(movieInfoNotFound(movieId)));
+    }
+
+    // the cache already coalesces concurrent misses for a key, so loads go to the server without the single-flight
+    private Mono<CachedMovieInfo> loadMovieInfo(String movieId) {
+        return fetchMovieInfo(movieId, null)
+                .flatMap(movieInfoResponse -> toCachedMovieInfo(movieId, movieInfoResponse))
+                .onErrorResume(MoviesInfoClientException.class, ex ->
+                        HttpStatus.NOT_FOUND.value() == ex.getStatusCode() ?
+                                Mono.just(CachedMovieInfo.notFound()) :
+                                Mono.error(ex));
+    }
+
+    private Mono<CachedMovieInfo> revalidateMovieInfo(String movieId, CachedMovieInfo cachedMovieInfo) {
+        if (!cachedMovieInfo.isFound() || Objects.isNull(cachedMovieInfo.getETag())) return loadMovieInfo(movieId);
+
+        return fetchMovieInfo(movieId, cachedMovieInfo.getETag())
+                .flatMap(movieInfoResponse -> {
+                    if (HttpStatus.NOT_MODIFIED.equals(movieInfoResponse.getStatusCode())) {
+                        notModifiedRevalidations.increment();
+                        return Mono.just(cachedMovieInfo);
+                    }
+                    modifiedRevalidations.increment();
+                    return toCachedMovieInfo(movieId, movieInfoResponse);
+                })
+                .onErrorResume(MoviesInfoClientException.class, ex ->
+                        HttpStatus.NOT_FOUND.value() == ex.getStatusCode() ?
+                                Mono.just(CachedMovieInfo.notFound()) :
+                                Mono.error(ex));
+    }
+
+    private Mono<MovieInfo> retrieveMovieInfoFromServer(String movieId) {
+        if (!singleFlightEnabled) return fetchMovieInfoBody(movieId);
+        return movieInfoSingleFlight.execute(movieId, () -> fetchMovieInfoBody(movieId))
+                .transform(moviesInfoResilience::withinDeadline);
+    }
+
+    private Mono<MovieInfo> fetchMovieInfoBody(String movieId) {
+        return fetchMovieInfo(movieId, null).flatMap(movieInfoResponse -> toMovieInfo(movieId, movieInfoResponse));
+    }
+
+    private Mono<ResponseEntity<MovieInfo>> fetchMovieInfo(String movieId, String eTag) {
         var url = moviesInfoUrl.concat("/{id}");
         return webClient
                 .get()
                 .uri(url, movieId)
+                .accept(wireMediaType)
+                .headers(headers -> {
+                    if (Objects.nonNull(eTag)) headers.setIfNoneMatch(eTag);
+                })
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, moviesInfoResponse -> handle4xxError(movieId, moviesInfoResponse))
                 .onStatus(HttpStatus::is5xxServerError, moviesInfoResponse -> handle5xxError(movieId, moviesInfoResponse))
-                .bodyToMono(MovieInfo.class)
-                .retryWhen(RetryUtils.retrySpec())
-                .log();
+                .toEntity(MovieInfo.class)
+                .transform(moviesInfoResilience::decorate)
+                .transform(signalTracer.mono("moviesInfoRestClient.retrieveMovieInfo"));
+    }
+
+    private Mono<CachedMovieInfo> toCachedMovieInfo(String movieId, ResponseEntity<MovieInfo> movieInfoResponse) {
+        return toMovieInfo(movieId, movieInfoResponse)
+                .map(movieInfo -> CachedMovieInfo.found(movieInfo, movieInfoResponse.getHeaders().getETag()));
+    }
+
+    // a 200 without a body is a broken response, not a missing movie, so it is neither cached nor mapped to a 404
+    private Mono<MovieInfo> toMovieInfo(String movieId, ResponseEntity<MovieInfo> movieInfoResponse) {
+        return Mono.justOrEmpty(movieInfoResponse.getBody())
+                .switchIfEmpty(Mono.error(() -> new MoviesInfoServerException(
+                        "Empty response from MovieInfoService for movieId : " + movieId)));
+    }
+
+    private static Counter revalidationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("movies.movieInfo.revalidations")
+                .description("Conditional reloads of cached movie infos")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private MoviesInfoClientException movieInfoNotFound(String movieId) {
+        return new MoviesInfoClientException("No Movie available for passed movieId : " + movieId,
+                HttpStatus.NOT_FOUND.value());
     }
 
     private Mono<Throwable> handle4xxError(String movieId, ClientResponse moviesInfoResponse) {
         if (moviesInfoResponse.statusCode().equals(HttpStatus.NOT_FOUND)) {
-            return Mono.error(
-                    new MoviesInfoClientException("No Movie available for passed movieId : " + movieId,
-                            moviesInfoResponse.statusCode().value()));
+            return Mono.error(movieInfoNotFound(movieId));
         }
 
         return moviesInfoResponse.bodyToMono(String.class)
@@ -53,4 +204,49 @@ public class MoviesInfoRestClient {
                         new MoviesInfoServerException("Server exception in MovieInfoService : " + responseMsg)
                 ));
     }
+
+    // a load is shared by every caller waiting on the key and a reload by none, so neither runs with a caller's
+    // Context; both get restClient.moviesInfoCache.loadTimeout as their deadline instead
+    private class MovieInfoLoader implements AsyncCacheLoader<String, CachedMovieInfo> {
+
+        @Override
+        public CompletableFuture<CachedMovieInfo> asyncLoad(String movieId, Executor executor) {
+            return loadMovieInfo(movieId)
+                    .contextWrite(Deadline.into(Deadline.after(loadTimeout)))
+                    .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<CachedMovieInfo> asyncReload(String movieId, CachedMovieInfo cachedMovieInfo, Executor executor) {
+            return revalidateMovieInfo(movieId, cachedMovieInfo)
+                    .contextWrite(Deadline.into(Deadline.after(loadTimeout)))
+                    .toFuture();
+        }
+    }
+
+    private static class MovieInfoExpiry implements Expiry<String, CachedMovieInfo> {
+
+        private final long expireAfterNanos;
+        private final long notFoundExpireAfterNanos;
+
+        MovieInfoExpiry(Duration expireAfter, Duration notFoundExpireAfter) {
+            this.expireAfterNanos = expireAfter.toNanos();
+            this.notFoundExpireAfterNanos = notFoundExpireAfter.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String movieId, CachedMovieInfo cachedMovieInfo, long currentTime) {
+            return cachedMovieInfo.isFound() ? expireAfterNanos : notFoundExpireAfterNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String movieId, CachedMovieInfo cachedMovieInfo, long currentTime, long currentDuration) {
+            return expireAfterCreate(movieId, cachedMovieInfo, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String movieId, CachedMovieInfo cachedMovieInfo, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
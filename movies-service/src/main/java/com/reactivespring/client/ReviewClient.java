@@ -0,0 +1,11 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.Review;
+import reactor.core.publisher.Flux;
+
+public interface ReviewClient {
+
+    Flux<Review> retrieveReviews(String movieId);
+
+    Flux<Review> streamReviews(String movieId);
+}
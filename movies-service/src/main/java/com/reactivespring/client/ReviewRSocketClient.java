@@ -0,0 +1,100 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewsClientException;
+import com.reactivespring.exception.ReviewsServerException;
+import com.reactivespring.resilience.DownstreamResilience;
+import com.reactivespring.resilience.ResilienceRegistry;
+import com.reactivespring.tracing.SignalTracer;
+import com.reactivespring.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.exceptions.InvalidException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+
+// restClient.transport=RSOCKET puts this in front of ReviewRestClient for retrieveReviews and streamReviews only. They
+// keep the breaker, retries, deadline and single-flight, but have no hedging, no per-downstream HTTP metrics and no
+// Smile wire format, and neither the deadline nor the request id is forwarded to the review service; the raw reviews
+// JSON and the review summary always go over HTTP through ReviewRestClient
+@Component
+@Primary
+@ConditionalOnProperty(name = "restClient.transport", havingValue = "RSOCKET")
+public class ReviewRSocketClient implements ReviewClient {
+
+    private RSocketRequester rSocketRequester;
+
+    private DownstreamResilience reviewsResilience;
+
+    private SignalTracer signalTracer;
+
+    private int reviewsPrefetch;
+
+    private boolean singleFlightEnabled;
+
+    private SingleFlight<String, Review> reviewsSingleFlight;
+
+    public ReviewRSocketClient(RSocketRequester.Builder rSocketRequesterBuilder,
+                               ResilienceRegistry resilienceRegistry,
+                               MeterRegistry meterRegistry,
+                               SignalTracer signalTracer,
+                               @Value("${restClient.reviewsRSocketUrl}") URI reviewsRSocketUrl,
+                               @Value("${restClient.reviewsRSocketPrefetch:64}") int reviewsPrefetch,
+                               @Value("${restClient.singleFlight.enabled:true}") boolean singleFlightEnabled) {
+        this.rSocketRequester = rSocketRequesterBuilder.tcp(reviewsRSocketUrl.getHost(), reviewsRSocketUrl.getPort());
+        this.reviewsResilience = resilienceRegistry.forDownstream("reviews");
+        this.signalTracer = signalTracer;
+        this.reviewsPrefetch = reviewsPrefetch;
+        this.singleFlightEnabled = singleFlightEnabled;
+        this.reviewsSingleFlight = new SingleFlight<>("reviewsRSocket", meterRegistry);
+    }
+
+    @Override
+    public Flux<Review> retrieveReviews(String movieId) {
+        if (!singleFlightEnabled) return fetchReviews(movieId);
+        return reviewsSingleFlight.executeMany(movieId, () -> fetchReviews(movieId))
+                .transform(reviewsResilience::withinDeadline);
+    }
+
+    private Flux<Review> fetchReviews(String movieId) {
+        return requestReviews(movieId)
+                .transform(reviewsResilience::decorate)
+                .transform(signalTracer.flux("reviewRSocketClient.retrieveReviews"));
+    }
+
+    @Override
+    public Flux<Review> streamReviews(String movieId) {
+        return requestReviews(movieId)
+                .transform(reviewsResilience::protect)
+                .transform(signalTracer.flux("reviewRSocketClient.streamReviews"));
+    }
+
+    // limitRate turns downstream demand into REQUEST_N frames of at most reviewsPrefetch credits,
+    // so the review service never has more than that in flight for one movie
+    private Flux<Review> requestReviews(String movieId) {
+        return rSocketRequester
+                .route("reviews.{movieInfoId}", movieId)
+                .retrieveFlux(Review.class)
+                .limitRate(reviewsPrefetch)
+                .onErrorMap(ReviewRSocketClient::toReviewsException);
+    }
+
+    // the exceptions ReviewRestClient raises for the matching HTTP statuses: a movie without reviews is an empty stream
+    // as a 404 is there, a request rejected as INVALID (a movieInfoId that is not a number) is a client error and is
+    // not retried, any other error frame or a lost connection is a retryable server error
+    private static Throwable toReviewsException(Throwable ex) {
+        if (ex instanceof InvalidException) return new ReviewsClientException(ex.getMessage());
+        return new ReviewsServerException("Server exception in ReviewService : " + ex.getMessage());
+    }
+
+    @PreDestroy
+    public void dispose() {
+        rSocketRequester.dispose();
+    }
+}
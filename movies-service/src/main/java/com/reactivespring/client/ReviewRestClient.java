@@ -1,48 +1,144 @@
 package com.reactivespring.client;
 
+import com.reactivespring.config.WebClientProperties;
 import com.reactivespring.domain.Review;
-import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.domain.ReviewSummary;
 import com.reactivespring.exception.ReviewsClientException;
+import com.reactivespring.exception.ReviewsNotFoundException;
 import com.reactivespring.exception.ReviewsServerException;
-import com.reactivespring.util.RetryUtils;
+import com.reactivespring.metrics.DownstreamMetrics;
+import com.reactivespring.resilience.DownstreamResilience;
+import com.reactivespring.resilience.ResilienceRegistry;
+import com.reactivespring.tracing.SignalTracer;
+import com.reactivespring.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
-import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
-import reactor.util.retry.RetryBackoffSpec;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 
 @Component
-public class ReviewRestClient {
+public class ReviewRestClient implements ReviewClient {
+
+    private static final byte[] EMPTY_REVIEWS_JSON = "[]".getBytes(StandardCharsets.UTF_8);
 
     private WebClient webClient;
 
-    public ReviewRestClient(WebClient webClient) {
-        this.webClient = webClient;
+    private MediaType wireMediaType;
+
+    private boolean singleFlightEnabled;
+
+    private SingleFlight<String, Review> reviewsSingleFlight;
+
+    private DownstreamResilience reviewsResilience;
+
+    private SignalTracer signalTracer;
+
+    public ReviewRestClient(WebClient webClient,
+                            WebClientProperties webClientProperties,
+                            DownstreamMetrics downstreamMetrics,
+                            MeterRegistry meterRegistry,
+                            ResilienceRegistry resilienceRegistry,
+                            SignalTracer signalTracer,
+                            @Value("${restClient.singleFlight.enabled:true}") boolean singleFlightEnabled) {
+        this.webClient = webClient.mutate()
+                .filter(downstreamMetrics.instrument("reviews"))
+                .build();
+        this.wireMediaType = webClientProperties.getWireFormat().getMediaType();
+        this.singleFlightEnabled = singleFlightEnabled;
+        this.reviewsSingleFlight = new SingleFlight<>("reviews", meterRegistry);
+        this.reviewsResilience = resilienceRegistry.forDownstream("reviews");
+        this.signalTracer = signalTracer;
     }
 
     @Value("${restClient.reviewsUrl}")
     private String moviesInfoUrl;
 
+    @Override
     public Flux<Review> retrieveReviews(String movieId) {
+        if (!singleFlightEnabled) return fetchReviews(movieId);
+        return reviewsSingleFlight.executeMany(movieId, () -> fetchReviews(movieId))
+                .transform(reviewsResilience::withinDeadline);
+    }
+
+    private Flux<Review> fetchReviews(String movieId) {
+        return reviewsResilience.hedge(() -> requestReviews(movieId))
+                .transform(reviewsResilience::decorate)
+                .transform(signalTracer.flux("reviewRestClient.retrieveReviews"));
+    }
+
+    @Override
+    public Flux<Review> streamReviews(String movieId) {
+        return requestReviews(movieId, MediaType.APPLICATION_NDJSON)
+                .transform(reviewsResilience::protect)
+                .transform(signalTracer.flux("reviewRestClient.streamReviews"));
+    }
+
+    // the review service's JSON array exactly as it arrives, never decoded into Review objects and never held whole:
+    // each buffer is passed on as it is read. An attempt is only retried before its first buffer, bytes already written
+    // to the response cannot be taken back
+    public Flux<DataBuffer> retrieveReviewsJson(String movieId) {
+        String url = constructUrlForGetReviewsById(movieId);
+        return webClient
+                .get()
+                .uri(url)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, reviewsResponse -> handle4xxError(movieId, reviewsResponse))
+                .onStatus(HttpStatus::is5xxServerError, reviewsResponse -> handle5xxError(movieId, reviewsResponse))
+                .bodyToFlux(DataBuffer.class)
+                .onErrorResume(ReviewsNotFoundException.class, ex ->
+                        Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(EMPTY_REVIEWS_JSON)))
+                .transform(reviewsResilience::decorate)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .transform(signalTracer.flux("reviewRestClient.retrieveReviewsJson"));
+    }
+
+    // the review service aggregates in mongo, so only a few hundred bytes come back however popular the movie is
+    public Mono<ReviewSummary> retrieveReviewSummary(String movieId) {
+        var url = UriComponentsBuilder
+                .fromHttpUrl(moviesInfoUrl)
+                .path("/summary")
+                .queryParam("movieInfoId", movieId)
+                .buildAndExpand()
+                .toUriString();
+        return webClient
+                .get()
+                .uri(url)
+                .accept(wireMediaType)
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, reviewsResponse -> handle4xxError(movieId, reviewsResponse))
+                .onStatus(HttpStatus::is5xxServerError, reviewsResponse -> handle5xxError(movieId, reviewsResponse))
+                .bodyToMono(ReviewSummary.class)
+                .transform(reviewsResilience::decorate)
+                .transform(signalTracer.mono("reviewRestClient.retrieveReviewSummary"));
+    }
+
+    private Flux<Review> requestReviews(String movieId) {
+        return requestReviews(movieId, wireMediaType);
+    }
 
+    private Flux<Review> requestReviews(String movieId, MediaType mediaType) {
         String url = constructUrlForGetReviewsById(movieId);
         return webClient
                 .get()
                 .uri(url)
+                .accept(mediaType)
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError, reviewsResponse -> handle4xxError(movieId, reviewsResponse))
                 .onStatus(HttpStatus::is5xxServerError, reviewsResponse -> handle5xxError(movieId, reviewsResponse))
                 .bodyToFlux(Review.class)
-                .retryWhen(RetryUtils.retrySpec())
-                .log();
+                .onErrorResume(ReviewsNotFoundException.class, ex -> Flux.empty());
     }
 
     private String constructUrlForGetReviewsById(String movieId) {
@@ -54,7 +150,10 @@ public class ReviewRestClient {
     }
 
     private Mono<Throwable> handle4xxError(String movieId, ClientResponse reviewsResponse) {
-        if (reviewsResponse.statusCode().equals(HttpStatus.NOT_FOUND)) return Mono.empty();
+        if (reviewsResponse.statusCode().equals(HttpStatus.NOT_FOUND)) {
+            return reviewsResponse.releaseBody()
+                    .then(Mono.error(new ReviewsNotFoundException("No Reviews available for passed movieId : " + movieId)));
+        }
         return reviewsResponse.bodyToMono(String.class)
                 .flatMap(responseMsg -> Mono.error(
                         new ReviewsClientException(responseMsg)
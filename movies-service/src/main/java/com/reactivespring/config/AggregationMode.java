@@ -0,0 +1,6 @@
+package com.reactivespring.config;
+
+public enum AggregationMode {
+    SEQUENTIAL,
+    CONCURRENT
+}
@@ -1,13 +1,91 @@
 package com.reactivespring.config;
 
+import com.reactivespring.deadline.Deadline;
+import com.reactivespring.tracing.SignalTracer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
 
 @Configuration
 public class WebClientConfig {
 
+    @Value("${restClient.moviesInfoUrl}")
+    private String moviesInfoUrl;
+
+    @Value("${restClient.reviewsUrl}")
+    private String reviewsUrl;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider connectionProvider(WebClientProperties webClientProperties) {
+        var builder = ConnectionProvider.builder("movies-service");
+        applyPool(builder, webClientProperties.getDefaultPool());
+        builder.forRemoteHost(remoteAddress(moviesInfoUrl),
+                spec -> applyPool(spec, webClientProperties.forDownstream("moviesInfo")));
+        builder.forRemoteHost(remoteAddress(reviewsUrl),
+                spec -> applyPool(spec, webClientProperties.forDownstream("reviews")));
+        return builder.build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder) { return builder.build(); }
+    public WebClient webClient(WebClient.Builder builder,
+                               ConnectionProvider connectionProvider,
+                               WebClientProperties webClientProperties) {
+        var httpClient = HttpClient.create(connectionProvider);
+        // prior-knowledge h2c multiplexes requests to a backend over a few connections instead of one per request
+        if (webClientProperties.isH2c()) httpClient = httpClient.protocol(HttpProtocol.H2C);
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(propagateDeadline())
+                .filter(propagateRequestId())
+                .build();
+    }
+
+    // the backends see the budget of the current attempt, so they can drop work nobody is waiting for anymore
+    private static ExchangeFilterFunction propagateDeadline() {
+        return (request, next) -> Mono.deferContextual(contextView -> Deadline.from(contextView)
+                .map(deadline -> ClientRequest.from(request)
+                        .header(Deadline.TIMEOUT_HEADER, String.valueOf(deadline.remaining().toMillis()))
+                        .build())
+                .map(next::exchange)
+                .orElseGet(() -> next.exchange(request)));
+    }
+
+    private static ExchangeFilterFunction propagateRequestId() {
+        return (request, next) -> Mono.deferContextual(contextView -> SignalTracer.requestId(contextView)
+                .map(requestId -> ClientRequest.from(request)
+                        .header(SignalTracer.REQUEST_ID_HEADER, requestId)
+                        .build())
+                .map(next::exchange)
+                .orElseGet(() -> next.exchange(request)));
+    }
+
+    // metrics(true) publishes the reactor.netty.connection.provider active, idle and pending gauges per remote host
+    private static <SPEC extends ConnectionProvider.ConnectionPoolSpec<SPEC>> void applyPool(
+            ConnectionProvider.ConnectionPoolSpec<SPEC> spec, WebClientProperties.PoolProperties poolProperties) {
+        spec.maxConnections(poolProperties.getMaxConnections())
+                .pendingAcquireMaxCount(poolProperties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(poolProperties.getPendingAcquireTimeout())
+                .maxIdleTime(poolProperties.getMaxIdleTime())
+                .maxLifeTime(poolProperties.getMaxLifeTime())
+                .evictInBackground(poolProperties.getEvictInBackground())
+                .metrics(true);
+    }
 
+    private static InetSocketAddress remoteAddress(String url) {
+        var uri = URI.create(url);
+        var port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        return InetSocketAddress.createUnresolved(uri.getHost(), port);
+    }
 }
@@ -0,0 +1,38 @@
+package com.reactivespring.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "web-client")
+public class WebClientProperties {
+
+    private boolean h2c = false;
+
+    // what movies-service asks the backends for, external callers always get JSON
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    private PoolProperties defaultPool = new PoolProperties();
+
+    private Map<String, PoolProperties> pools = new HashMap<>();
+
+    public PoolProperties forDownstream(String downstream) {
+        return pools.getOrDefault(downstream, defaultPool);
+    }
+
+    @Data
+    public static class PoolProperties {
+        private int maxConnections = 100;
+        private int pendingAcquireMaxCount = 500;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+    }
+}
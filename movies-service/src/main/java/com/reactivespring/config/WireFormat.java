@@ -0,0 +1,20 @@
+package com.reactivespring.config;
+
+import org.springframework.http.MediaType;
+
+// Smile rather than CBOR: the Smile codecs can also stream a Flux, which the review list needs
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
@@ -1,40 +1,102 @@
 package com.reactivespring.controller;
 
-import com.reactivespring.client.MoviesInfoRestClient;
-import com.reactivespring.client.ReviewRestClient;
 import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieEvent;
+import com.reactivespring.domain.MovieResult;
+import com.reactivespring.domain.MovieSummary;
+import com.reactivespring.exception.MoviesRequestException;
+import com.reactivespring.service.MoviesService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Objects;
+
 @RestController
 @RequestMapping("/v1/movies")
 public class MoviesController {
 
-    private MoviesInfoRestClient moviesInfoRestClient;
-    private ReviewRestClient reviewRestClient;
+    private MoviesService moviesService;
+
+    @Value("${movies.batch.maxIds:100}")
+    private int maxBatchIds;
+
+    @Value("${movies.batch.maxConcurrency:16}")
+    private int maxBatchConcurrency;
 
-    public MoviesController(MoviesInfoRestClient moviesInfoRestClient, ReviewRestClient reviewRestClient) {
-        this.moviesInfoRestClient = moviesInfoRestClient;
-        this.reviewRestClient = reviewRestClient;
+    private DistributionSummary reviewsPerMovie;
+
+    public MoviesController(MoviesService moviesService, MeterRegistry meterRegistry) {
+        this.moviesService = moviesService;
+        this.reviewsPerMovie = DistributionSummary.builder("movies.reviews.per.movie")
+                .description("Number of reviews returned with each aggregated movie")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1d)
+                .maximumExpectedValue(10_000d)
+                .register(meterRegistry);
     }
 
     @GetMapping("/{movieId}")
     public Mono<Movie> retrieveMovieById(
             @PathVariable String movieId) {
 
-        return moviesInfoRestClient.retrieveMovieInfo(movieId)
-                .flatMap(movieInfo -> {
-                    var reviewsMono =
-                            reviewRestClient
-                                    .retrieveReviews(movieId)
-                                    .collectList();
+        return moviesService.retrieveMovie(movieId)
+                .doOnNext(this::recordReviews);
+    }
+
+    @GetMapping(value = "/{movieId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MovieEvent> streamMovieById(
+            @PathVariable String movieId) {
+
+        return moviesService.streamMovie(movieId);
+    }
+
+    @GetMapping(value = "/{movieId}/raw", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> retrieveMovieJsonById(
+            @PathVariable String movieId) {
+
+        return moviesService.retrieveMovieJson(movieId);
+    }
+
+    @GetMapping("/{movieId}/summary")
+    public Mono<MovieSummary> retrieveMovieSummaryById(
+            @PathVariable String movieId) {
+
+        return moviesService.retrieveMovieSummary(movieId);
+    }
 
-                    return reviewsMono
-                            .map(reviews -> new Movie(movieInfo, reviews));
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<MovieResult> retrieveMoviesByIds(
+            @RequestParam List<String> ids,
+            @RequestParam(value = "concurrency", required = false) Integer concurrency,
+            @RequestParam(value = "ordered", defaultValue = "true") boolean ordered) {
+
+        if (ids.isEmpty() || ids.size() > maxBatchIds) {
+            return Flux.error(new MoviesRequestException("ids must contain between 1 and " + maxBatchIds + " movieIds"));
+        }
+
+        var effectiveConcurrency = Objects.isNull(concurrency) ?
+                maxBatchConcurrency :
+                Math.max(1, Math.min(concurrency, maxBatchConcurrency));
+
+        return moviesService.retrieveMovies(ids, effectiveConcurrency, ordered)
+                .doOnNext(movieResult -> {
+                    if (Objects.nonNull(movieResult.getMovie())) recordReviews(movieResult.getMovie());
                 });
     }
 
-}
\ No newline at end of file
+    private void recordReviews(Movie movie) {
+        reviewsPerMovie.record(movie.getReviewList().size());
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.reactivespring.deadline;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+public final class Deadline {
+
+    // remaining budget in milliseconds; relative so that clock skew between hosts does not matter
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final Class<Deadline> CONTEXT_KEY = Deadline.class;
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<Deadline> from(ContextView contextView) {
+        return contextView.getOrEmpty(CONTEXT_KEY);
+    }
+
+    public static Function<Context, Context> into(Deadline deadline) {
+        return context -> context.put(CONTEXT_KEY, deadline);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public Deadline limitTo(Duration timeout) {
+        var limited = System.nanoTime() + timeout.toNanos();
+        return limited - expiresAtNanos < 0 ? new Deadline(limited) : this;
+    }
+
+    public <T> Mono<T> enforce(Mono<T> mono) {
+        return Mono.defer(() -> mono.timeout(remaining()));
+    }
+
+    // Flux.timeout(Duration) restarts per element, so every element gets a fresh timer for what is left
+    public <T> Flux<T> enforce(Flux<T> flux) {
+        var timer = Mono.defer(() -> Mono.delay(remaining()));
+        return flux.timeout(timer, element -> timer);
+    }
+}
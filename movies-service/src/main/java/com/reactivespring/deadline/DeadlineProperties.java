@@ -0,0 +1,19 @@
+package com.reactivespring.deadline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "deadline")
+public class DeadlineProperties {
+
+    private Duration defaultTimeout = Duration.ofSeconds(5);
+    private Duration maxTimeout = Duration.ofSeconds(30);
+    private Duration minAttemptTimeout = Duration.ofMillis(50);
+    private double attemptShare = 0.5;
+    private Duration streamIdleTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,54 @@
+package com.reactivespring.deadline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+@Slf4j
+public class DeadlineWebFilter implements WebFilter {
+
+    private final DeadlineProperties deadlineProperties;
+
+    public DeadlineWebFilter(DeadlineProperties deadlineProperties) {
+        this.deadlineProperties = deadlineProperties;
+    }
+
+    // the deadline only travels in the Context and bounds the downstream calls made for the request, the response
+    // itself is not timed so an NDJSON stream or a raw body that outlives the budget is never cut off mid-body
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var deadline = Deadline.after(requestTimeout(exchange.getRequest()));
+        if (deadline.isExpired()) return deadlineExceeded(exchange);
+
+        return chain.filter(exchange)
+                .contextWrite(Deadline.into(deadline));
+    }
+
+    private Duration requestTimeout(ServerHttpRequest request) {
+        var header = request.getHeaders().getFirst(Deadline.TIMEOUT_HEADER);
+        if (header == null) return deadlineProperties.getDefaultTimeout();
+        try {
+            var requested = Duration.ofMillis(Long.parseLong(header.trim()));
+            return requested.compareTo(deadlineProperties.getMaxTimeout()) > 0 ?
+                    deadlineProperties.getMaxTimeout() :
+                    requested;
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring invalid {} header : {}", Deadline.TIMEOUT_HEADER, header);
+            return deadlineProperties.getDefaultTimeout();
+        }
+    }
+
+    private Mono<Void> deadlineExceeded(ServerWebExchange exchange) {
+        var response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return response.setComplete();
+    }
+}
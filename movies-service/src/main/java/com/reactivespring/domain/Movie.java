@@ -14,4 +14,10 @@ public class Movie {
 
     private MovieInfo movieInfo;
     private List<Review> reviewList;
+    // true when the reviews service missed its budget or failed and reviewList is empty or stale
+    private boolean reviewsPartial;
+
+    public Movie(MovieInfo movieInfo, List<Review> reviewList) {
+        this(movieInfo, reviewList, false);
+    }
 }
@@ -0,0 +1,28 @@
+package com.reactivespring.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieEvent {
+
+    public static final String MOVIE_INFO = "movieInfo";
+    public static final String REVIEW = "review";
+
+    private String type;
+    private MovieInfo movieInfo;
+    private Review review;
+
+    public static MovieEvent of(MovieInfo movieInfo) {
+        return new MovieEvent(MOVIE_INFO, movieInfo, null);
+    }
+
+    public static MovieEvent of(Review review) {
+        return new MovieEvent(REVIEW, null, review);
+    }
+}
@@ -0,0 +1,26 @@
+package com.reactivespring.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieResult {
+
+    private String movieId;
+    private Integer status;
+    private Movie movie;
+    private String error;
+
+    public static MovieResult ok(String movieId, Movie movie) {
+        return new MovieResult(movieId, 200, movie, null);
+    }
+
+    public static MovieResult failed(String movieId, Integer status, String error) {
+        return new MovieResult(movieId, status, null, error);
+    }
+}
@@ -0,0 +1,21 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummary {
+
+    private Long movieInfoId;
+    private long count;
+    private Double averageRating;
+    private Double minRating;
+    private Double maxRating;
+    // number of reviews per whole-star rating, a 3.5 counts towards 3
+    private Map<Integer, Long> ratingHistogram;
+}
@@ -0,0 +1,10 @@
+package com.reactivespring.exception;
+
+public class ReviewsNotFoundException extends RuntimeException{
+    private String message;
+
+    public ReviewsNotFoundException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
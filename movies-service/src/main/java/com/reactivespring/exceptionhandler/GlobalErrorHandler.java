@@ -1,7 +1,10 @@
 package com.reactivespring.exceptionhandler;
 
+import com.reactivespring.exception.CircuitBreakerOpenException;
+import com.reactivespring.exception.DeadlineExceededException;
 import com.reactivespring.exception.MoviesInfoClientException;
 import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.exception.MoviesRequestException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,24 @@ public class GlobalErrorHandler {
         return ResponseEntity.status(ex.getStatusCode()).body(ex.getMessage());
     }
 
+    @ExceptionHandler(MoviesRequestException.class)
+    public ResponseEntity<String> handleMoviesRequestException(MoviesRequestException ex) {
+        log.error("Exception caught handleMoviesRequestException in : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(CircuitBreakerOpenException.class)
+    public ResponseEntity<String> handleCircuitBreakerOpenException(CircuitBreakerOpenException ex) {
+        log.error("Exception caught handleCircuitBreakerOpenException in : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> handleDeadlineExceededException(DeadlineExceededException ex) {
+        log.error("Exception caught handleDeadlineExceededException in : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
         log.error("Exception caught handleRuntimeException in : {}", ex.getMessage());
@@ -0,0 +1,79 @@
+package com.reactivespring.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class DownstreamMetrics {
+
+    private static final String IO_ERROR = "IO_ERROR";
+    private static final String CANCELLED = "CANCELLED";
+
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // latency runs until the body is fully read, so slow bodies are charged to the backend that sent them
+    public ExchangeFilterFunction instrument(String downstream) {
+        var latencyTimers = new ConcurrentHashMap<String, Timer>();
+        var payloadSize = DistributionSummary.builder("movies.downstream.response.size")
+                .description("Response body size per downstream exchange")
+                .baseUnit("bytes")
+                .tag("downstream", downstream)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64d)
+                .maximumExpectedValue(16d * 1024 * 1024)
+                .register(meterRegistry);
+
+        return (request, next) -> Mono.defer(() -> {
+            var startNanos = System.nanoTime();
+            return next.exchange(request)
+                    .map(response -> {
+                        var status = String.valueOf(response.rawStatusCode());
+                        var bytes = new AtomicLong();
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(dataBuffer -> bytes.addAndGet(dataBuffer.readableByteCount()))
+                                        .doFinally(signalType -> {
+                                            var outcome = signalType == SignalType.ON_ERROR ? IO_ERROR :
+                                                    signalType == SignalType.CANCEL ? CANCELLED : status;
+                                            record(latencyTimers, downstream, outcome, startNanos);
+                                            payloadSize.record(bytes.get());
+                                        }))
+                                .build();
+                    })
+                    .doOnError(ex -> record(latencyTimers, downstream, IO_ERROR, startNanos))
+                    .doOnCancel(() -> record(latencyTimers, downstream, CANCELLED, startNanos));
+        });
+    }
+
+    private void record(Map<String, Timer> latencyTimers, String downstream, String status, long startNanos) {
+        latencyTimers.computeIfAbsent(status, key -> latencyTimer(downstream, key))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // the status tag doubles as the per-status response counter (the timer's count)
+    private Timer latencyTimer(String downstream, String status) {
+        return Timer.builder("movies.downstream.latency")
+                .description("Latency of a single downstream exchange, retries and hedges are timed separately")
+                .tag("downstream", downstream)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,176 @@
+package com.reactivespring.resilience;
+
+import com.reactivespring.exception.CircuitBreakerOpenException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumNumberOfCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenPermittedCalls;
+    private final Predicate<Throwable> recordFailure;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenCallsStarted;
+    private int halfOpenCallsSucceeded;
+
+    public CircuitBreaker(String name, ResilienceProperties.CircuitBreakerProperties properties,
+                          Predicate<Throwable> recordFailure) {
+        this(name, properties, recordFailure, System::nanoTime);
+    }
+
+    public CircuitBreaker(String name, ResilienceProperties.CircuitBreakerProperties properties,
+                          Predicate<Throwable> recordFailure, LongSupplier nanoClock) {
+        this.name = name;
+        this.outcomes = new boolean[properties.getSlidingWindowSize()];
+        this.minimumNumberOfCalls = Math.min(properties.getMinimumNumberOfCalls(), properties.getSlidingWindowSize());
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openDurationNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenPermittedCalls = properties.getHalfOpenPermittedCalls();
+        this.recordFailure = recordFailure;
+        this.nanoClock = nanoClock;
+    }
+
+    public <T> Mono<T> decorate(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) return Mono.error(callNotPermitted());
+            var recorded = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> record(recorded, null))
+                    .doOnError(ex -> record(recorded, ex))
+                    .doFinally(signalType -> {
+                        if (signalType == SignalType.CANCEL) release(recorded);
+                    });
+        });
+    }
+
+    public <T> Flux<T> decorate(Flux<T> call) {
+        return Flux.defer(() -> {
+            if (!tryAcquirePermission()) return Flux.error(callNotPermitted());
+            var recorded = new AtomicBoolean();
+            return call
+                    .doOnComplete(() -> record(recorded, null))
+                    .doOnError(ex -> record(recorded, ex))
+                    .doFinally(signalType -> {
+                        if (signalType == SignalType.CANCEL) release(recorded);
+                    });
+        });
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openDurationElapsed()) transitionTo(State.HALF_OPEN);
+        return state;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        switch (getState()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenCallsStarted >= halfOpenPermittedCalls) return false;
+                halfOpenCallsStarted++;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenCallsSucceeded >= halfOpenPermittedCalls) transitionTo(State.CLOSED);
+            return;
+        }
+        recordOutcome(false);
+    }
+
+    public synchronized void onError(Throwable ex) {
+        if (!recordFailure.test(ex)) {
+            onSuccess();
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        recordOutcome(true);
+    }
+
+    private void record(AtomicBoolean recorded, Throwable ex) {
+        if (!recorded.compareAndSet(false, true)) return;
+        if (ex == null) onSuccess();
+        else onError(ex);
+    }
+
+    // a cancelled half-open trial gives its permit back instead of counting as an outcome
+    private synchronized void release(AtomicBoolean recorded) {
+        if (!recorded.compareAndSet(false, true)) return;
+        if (state == State.HALF_OPEN && halfOpenCallsStarted > 0) halfOpenCallsStarted--;
+    }
+
+    private void recordOutcome(boolean failed) {
+        if (state != State.CLOSED) return;
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[outcomeIndex]) failedCalls--;
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = failed;
+        if (failed) failedCalls++;
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+
+        if (recordedCalls >= minimumNumberOfCalls && failedCalls * 100d / recordedCalls >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean openDurationElapsed() {
+        return nanoClock.getAsLong() - openedAtNanos >= openDurationNanos;
+    }
+
+    private void transitionTo(State newState) {
+        log.info("CircuitBreaker {} transitioned from {} to {}", name, state, newState);
+        state = newState;
+        outcomeIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        halfOpenCallsStarted = 0;
+        halfOpenCallsSucceeded = 0;
+        if (newState == State.OPEN) openedAtNanos = nanoClock.getAsLong();
+    }
+
+    private CircuitBreakerOpenException callNotPermitted() {
+        return new CircuitBreakerOpenException("CircuitBreaker " + name + " is open, call not permitted");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getOpenDuration() {
+        return Duration.ofNanos(openDurationNanos);
+    }
+}
@@ -0,0 +1,142 @@
+package com.reactivespring.resilience;
+
+import com.reactivespring.deadline.Deadline;
+import com.reactivespring.deadline.DeadlineProperties;
+import com.reactivespring.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class DownstreamResilience {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retrySpec;
+    private final Hedger hedger;
+    private final int maxAttempts;
+    private final DeadlineProperties deadlineProperties;
+    private final DistributionSummary attemptsPerCall;
+
+    public DownstreamResilience(CircuitBreaker circuitBreaker, Retry retrySpec, Hedger hedger,
+                                int maxAttempts, DeadlineProperties deadlineProperties,
+                                DistributionSummary attemptsPerCall) {
+        this.circuitBreaker = circuitBreaker;
+        this.retrySpec = retrySpec;
+        this.hedger = hedger;
+        this.maxAttempts = maxAttempts;
+        this.deadlineProperties = deadlineProperties;
+        this.attemptsPerCall = attemptsPerCall;
+    }
+
+    public <T> Flux<T> hedge(Supplier<Flux<T>> attempt) {
+        return hedger.hedge(attempt);
+    }
+
+    // every attempt, including retries, goes through the breaker so an open breaker also stops retrying;
+    // each attempt only gets part of what is left of the deadline, so a slow first try cannot starve the retries
+    public <T> Mono<T> decorate(Mono<T> call) {
+        return Mono.deferContextual(contextView -> {
+            var deadline = Deadline.from(contextView).orElseGet(this::defaultDeadline);
+            var attempts = new AtomicInteger();
+            return Mono.defer(() -> {
+                        if (deadline.isExpired()) return Mono.<T>error(deadlineExceeded());
+                        var attemptDeadline = attemptDeadline(deadline, attempts.getAndIncrement());
+                        return circuitBreaker.decorate(attemptDeadline.enforce(call))
+                                .contextWrite(Deadline.into(attemptDeadline));
+                    })
+                    .retryWhen(retrySpec)
+                    .onErrorMap(TimeoutException.class, ex -> deadlineExceeded())
+                    .doFinally(signalType -> attemptsPerCall.record(attempts.get()))
+                    .contextWrite(Deadline.into(deadline));
+        });
+    }
+
+    // elements already sent downstream cannot be taken back, so only an attempt that failed before its first element
+    // is retried; once an attempt emits, its remaining elements get the whole deadline rather than the attempt's share
+    public <T> Flux<T> decorate(Flux<T> call) {
+        return Flux.deferContextual(contextView -> {
+            var deadline = Deadline.from(contextView).orElseGet(this::defaultDeadline);
+            var attempts = new AtomicInteger();
+            return Flux.defer(() -> {
+                        if (deadline.isExpired()) return Flux.<T>error(deadlineExceeded());
+                        var attemptDeadline = attemptDeadline(deadline, attempts.getAndIncrement());
+                        var emitted = new AtomicBoolean();
+                        return circuitBreaker.decorate(call.timeout(
+                                                Mono.defer(() -> Mono.delay(attemptDeadline.remaining())),
+                                                element -> Mono.defer(() -> Mono.delay(deadline.remaining()))))
+                                .contextWrite(Deadline.into(attemptDeadline))
+                                .doOnNext(element -> emitted.set(true))
+                                .onErrorMap(ex -> emitted.get(), AfterFirstElementException::new);
+                    })
+                    .retryWhen(retrySpec)
+                    .onErrorMap(AfterFirstElementException.class, Throwable::getCause)
+                    .onErrorMap(TimeoutException.class, ex -> deadlineExceeded())
+                    .doFinally(signalType -> attemptsPerCall.record(attempts.get()))
+                    .contextWrite(Deadline.into(deadline));
+        });
+    }
+
+    // only the caller's deadline, for results shared between callers (single-flight) that were fetched without it
+    public <T> Mono<T> withinDeadline(Mono<T> shared) {
+        return Mono.deferContextual(contextView -> Deadline.from(contextView)
+                .map(deadline -> deadline.enforce(shared))
+                .orElse(shared)
+                .onErrorMap(TimeoutException.class, ex -> deadlineExceeded()));
+    }
+
+    public <T> Flux<T> withinDeadline(Flux<T> shared) {
+        return Flux.deferContextual(contextView -> Deadline.from(contextView)
+                .map(deadline -> deadline.enforce(shared))
+                .orElse(shared)
+                .onErrorMap(TimeoutException.class, ex -> deadlineExceeded()));
+    }
+
+    // streams that may already have emitted elements cannot be retried without duplicating them; a stream may outlive
+    // the deadline once it flows, but its first element still has to arrive within it and a stream that stalls for
+    // longer than streamIdleTimeout between elements is cut off
+    public <T> Flux<T> protect(Flux<T> stream) {
+        return Flux.deferContextual(contextView -> {
+            var deadline = Deadline.from(contextView).orElseGet(this::defaultDeadline);
+            var idleTimeout = deadlineProperties.getStreamIdleTimeout();
+            return circuitBreaker.decorate(stream.timeout(Mono.defer(() -> Mono.delay(deadline.remaining())),
+                            element -> Mono.delay(idleTimeout)))
+                    .onErrorMap(TimeoutException.class, ex -> deadlineExceeded());
+        });
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    // most calls succeed on the first try, so each attempt takes a share of what is left and the last one takes it all
+    private Deadline attemptDeadline(Deadline deadline, int attempt) {
+        var remaining = deadline.remaining();
+        if (attempt >= maxAttempts - 1) return deadline;
+        var share = Duration.ofNanos((long) (remaining.toNanos() * deadlineProperties.getAttemptShare()));
+        var minAttemptTimeout = deadlineProperties.getMinAttemptTimeout();
+        return deadline.limitTo(share.compareTo(minAttemptTimeout) < 0 ? minAttemptTimeout : share);
+    }
+
+    // calls made outside of a request, such as cache refreshes, still get a bounded budget
+    private Deadline defaultDeadline() {
+        return Deadline.after(deadlineProperties.getDefaultTimeout());
+    }
+
+    private DeadlineExceededException deadlineExceeded() {
+        return new DeadlineExceededException("Deadline exceeded calling " + circuitBreaker.getName());
+    }
+
+    // carries a failure past the retry, which never retries an unknown exception, and is unwrapped right after it
+    private static class AfterFirstElementException extends RuntimeException {
+
+        AfterFirstElementException(Throwable cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.reactivespring.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+public class Hedger {
+
+    private final ResilienceProperties.HedgingProperties hedgingProperties;
+    private final LatencyTracker latencyTracker;
+    private final Counter primaryRequests;
+    private final Counter hedgedRequests;
+    private final Counter hedgeWins;
+
+    private double hedgeTokens;
+
+    public Hedger(String downstream, ResilienceProperties.HedgingProperties hedgingProperties, MeterRegistry meterRegistry) {
+        this.hedgingProperties = hedgingProperties;
+        this.latencyTracker = new LatencyTracker(hedgingProperties.getWindowSize(), hedgingProperties.getPercentile());
+        this.hedgeTokens = hedgingProperties.getBudgetCapacity();
+        this.primaryRequests = hedgingCounter("hedging.requests", downstream, "primary", meterRegistry);
+        this.hedgedRequests = hedgingCounter("hedging.requests", downstream, "hedge", meterRegistry);
+        this.hedgeWins = hedgingCounter("hedging.wins", downstream, "hedge", meterRegistry);
+        Gauge.builder("hedging.delay", this, hedger -> hedger.hedgeDelay().toMillis())
+                .baseUnit("milliseconds")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+    }
+
+    // the hedge is only sent if the primary has not signalled within the hedge delay; firstWithSignal cancels the loser
+    public <T> Flux<T> hedge(Supplier<Flux<T>> attempt) {
+        if (!hedgingProperties.isEnabled()) return attempt.get();
+
+        return Flux.defer(() -> {
+            primaryRequests.increment();
+            deposit();
+            var decided = new AtomicBoolean();
+            var primary = timed(attempt.get())
+                    .doOnEach(signal -> decided.compareAndSet(false, true));
+            var hedge = Mono.delay(hedgeDelay())
+                    .flatMapMany(tick -> {
+                        if (decided.get() || !tryAcquireHedge()) return Flux.<T>never();
+                        hedgedRequests.increment();
+                        return timed(attempt.get())
+                                .doOnEach(signal -> {
+                                    if (decided.compareAndSet(false, true)) hedgeWins.increment();
+                                });
+                    });
+            return Flux.firstWithSignal(primary, hedge);
+        });
+    }
+
+    public Duration hedgeDelay() {
+        var percentileNanos = latencyTracker.percentileNanos();
+        if (percentileNanos < 0) return hedgingProperties.getMaxDelay();
+        var delay = Duration.ofNanos(percentileNanos);
+        if (delay.compareTo(hedgingProperties.getMinDelay()) < 0) return hedgingProperties.getMinDelay();
+        if (delay.compareTo(hedgingProperties.getMaxDelay()) > 0) return hedgingProperties.getMaxDelay();
+        return delay;
+    }
+
+    private <T> Flux<T> timed(Flux<T> attempt) {
+        return Flux.defer(() -> {
+            var startNanos = System.nanoTime();
+            return attempt.doOnComplete(() -> latencyTracker.record(System.nanoTime() - startNanos));
+        });
+    }
+
+    // every primary request earns maxExtraLoad of a hedge, which bounds hedges to that fraction of traffic
+    private synchronized void deposit() {
+        hedgeTokens = Math.min(hedgingProperties.getBudgetCapacity(), hedgeTokens + hedgingProperties.getMaxExtraLoad());
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgeTokens < 1) return false;
+        hedgeTokens -= 1;
+        return true;
+    }
+
+    private static Counter hedgingCounter(String name, String downstream, String type, MeterRegistry meterRegistry) {
+        return Counter.builder(name)
+                .tag("downstream", downstream)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
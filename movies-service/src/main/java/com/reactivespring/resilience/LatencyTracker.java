@@ -0,0 +1,39 @@
+package com.reactivespring.resilience;
+
+import java.util.Arrays;
+
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final double percentile;
+    private int nextSample;
+    private int recordedSamples;
+    private int samplesSinceRecompute;
+
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(int windowSize, double percentile) {
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+    }
+
+    // sorting the window on every sample would cost more than the hedging saves, so the percentile is refreshed periodically
+    public synchronized void record(long latencyNanos) {
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % samples.length;
+        if (recordedSamples < samples.length) recordedSamples++;
+        if (++samplesSinceRecompute >= RECOMPUTE_EVERY || percentileNanos < 0) {
+            samplesSinceRecompute = 0;
+            var window = Arrays.copyOf(samples, recordedSamples);
+            Arrays.sort(window);
+            var index = (int) Math.ceil(percentile / 100 * recordedSamples) - 1;
+            percentileNanos = window[Math.max(0, Math.min(index, recordedSamples - 1))];
+        }
+    }
+
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+}
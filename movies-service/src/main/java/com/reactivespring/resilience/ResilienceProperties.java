@@ -0,0 +1,57 @@
+package com.reactivespring.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+    private Map<String, DownstreamProperties> downstreams = new HashMap<>();
+
+    public DownstreamProperties forDownstream(String downstream) {
+        return downstreams.getOrDefault(downstream, new DownstreamProperties());
+    }
+
+    @Data
+    public static class DownstreamProperties {
+        private RetryProperties retry = new RetryProperties();
+        private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+        private HedgingProperties hedging = new HedgingProperties();
+    }
+
+    @Data
+    public static class RetryProperties {
+        private int maxRetries = 3;
+        private Duration firstBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        private double budgetCapacity = 20;
+        private double budgetRefillPerSecond = 10;
+    }
+
+    @Data
+    public static class CircuitBreakerProperties {
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private double failureRateThreshold = 50;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenPermittedCalls = 3;
+    }
+
+    @Data
+    public static class HedgingProperties {
+        private boolean enabled = false;
+        private double percentile = 95;
+        private int windowSize = 1000;
+        private Duration minDelay = Duration.ofMillis(10);
+        private Duration maxDelay = Duration.ofMillis(500);
+        private double maxExtraLoad = 0.1;
+        private double budgetCapacity = 10;
+    }
+}
@@ -0,0 +1,77 @@
+package com.reactivespring.resilience;
+
+import com.reactivespring.deadline.DeadlineProperties;
+import com.reactivespring.util.RetryUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ResilienceRegistry {
+
+    private final ResilienceProperties resilienceProperties;
+    private final DeadlineProperties deadlineProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DownstreamResilience> downstreams = new ConcurrentHashMap<>();
+
+    public ResilienceRegistry(ResilienceProperties resilienceProperties,
+                              DeadlineProperties deadlineProperties,
+                              MeterRegistry meterRegistry) {
+        this.resilienceProperties = resilienceProperties;
+        this.deadlineProperties = deadlineProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public DownstreamResilience forDownstream(String downstream) {
+        return downstreams.computeIfAbsent(downstream, this::create);
+    }
+
+    private DownstreamResilience create(String downstream) {
+        var properties = resilienceProperties.forDownstream(downstream);
+        var circuitBreaker = new CircuitBreaker(downstream, properties.getCircuitBreaker(),
+                RetryUtils::isRetryable);
+        var retryBudget = new RetryBudget(properties.getRetry().getBudgetCapacity(),
+                properties.getRetry().getBudgetRefillPerSecond());
+
+        Gauge.builder("resilience.circuitbreaker.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half open")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("resilience.retry.budget.tokens", retryBudget, RetryBudget::availableTokens)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+
+        var retryCounters = Map.of(
+                RetryUtils.RETRIED, retryCounter(downstream, RetryUtils.RETRIED),
+                RetryUtils.EXHAUSTED, retryCounter(downstream, RetryUtils.EXHAUSTED),
+                RetryUtils.BUDGET_EXHAUSTED, retryCounter(downstream, RetryUtils.BUDGET_EXHAUSTED),
+                RetryUtils.DEADLINE_EXCEEDED, retryCounter(downstream, RetryUtils.DEADLINE_EXCEEDED));
+        var retrySpec = RetryUtils.retrySpec(properties.getRetry(), retryBudget,
+                outcome -> retryCounters.get(outcome).increment());
+
+        var hedger = new Hedger(downstream, properties.getHedging(), meterRegistry);
+
+        var attemptsPerCall = DistributionSummary.builder("resilience.retry.attempts")
+                .description("Attempts made per downstream call, 1 means no retry was needed")
+                .tag("downstream", downstream)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1d)
+                .maximumExpectedValue((double) properties.getRetry().getMaxRetries() + 1)
+                .register(meterRegistry);
+
+        return new DownstreamResilience(circuitBreaker, retrySpec, hedger,
+                properties.getRetry().getMaxRetries() + 1, deadlineProperties, attemptsPerCall);
+    }
+
+    private Counter retryCounter(String downstream, String outcome) {
+        return Counter.builder("resilience.retry.calls")
+                .tag("downstream", downstream)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
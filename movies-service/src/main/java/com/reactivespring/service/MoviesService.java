@@ -0,0 +1,316 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactivespring.client.MoviesInfoClient;
+import com.reactivespring.client.ReviewClient;
+import com.reactivespring.client.ReviewRestClient;
+import com.reactivespring.config.AggregationMode;
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieEvent;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieResult;
+import com.reactivespring.domain.MovieSummary;
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.CircuitBreakerOpenException;
+import com.reactivespring.exception.DeadlineExceededException;
+import com.reactivespring.exception.MoviesInfoClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class MoviesService {
+
+    private static final int STREAM_PREFETCH = 32;
+
+    private static final byte[] MOVIE_INFO_FIELD = "{\"movieInfo\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] REVIEW_LIST_FIELD = ",\"reviewList\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMPLETE_MOVIE_SUFFIX = ",\"reviewsPartial\":false}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PARTIAL_MOVIE_SUFFIX = ",\"reviewsPartial\":true}".getBytes(StandardCharsets.UTF_8);
+
+    private MoviesInfoClient moviesInfoClient;
+    private ReviewClient reviewClient;
+    private ReviewRestClient reviewRestClient;
+
+    private ObjectMapper objectMapper;
+
+    @Value("${movies.aggregation.mode:CONCURRENT}")
+    private AggregationMode aggregationMode;
+
+    private boolean degradedEnabled;
+
+    private Duration reviewsBudget;
+
+    private Cache<String, List<Review>> lastKnownReviews;
+
+    private Cache<String, byte[]> lastKnownReviewsJson;
+
+    private int lastKnownReviewsJsonMaxEntryBytes;
+
+    private Counter reviewsTimedOut;
+
+    private Counter reviewsFailed;
+
+    public MoviesService(MoviesInfoClient moviesInfoClient,
+                         ReviewClient reviewClient,
+                         ReviewRestClient reviewRestClient,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${movies.degraded.enabled:false}") boolean degradedEnabled,
+                         @Value("${movies.degraded.reviewsBudget:300ms}") Duration reviewsBudget,
+                         @Value("${movies.degraded.lastKnownReviews.maximumWeight:100000}") long lastKnownReviewsMaximumWeight,
+                         @Value("${movies.degraded.lastKnownReviews.expireAfter:10m}") Duration lastKnownReviewsExpireAfter,
+                         @Value("${movies.degraded.lastKnownReviewsJson.maximumSize:10MB}") DataSize lastKnownReviewsJsonMaximumSize,
+                         @Value("${movies.degraded.lastKnownReviewsJson.maxEntrySize:64KB}") DataSize lastKnownReviewsJsonMaxEntrySize) {
+        this.moviesInfoClient = moviesInfoClient;
+        this.reviewClient = reviewClient;
+        this.reviewRestClient = reviewRestClient;
+        this.objectMapper = objectMapper;
+        this.degradedEnabled = degradedEnabled;
+        this.reviewsBudget = reviewsBudget;
+        // bounded by the number of reviews held rather than by movies, so a few very reviewed movies cannot fill the
+        // heap; an empty list still weighs one so that it counts against the bound as well
+        this.lastKnownReviews = Caffeine.newBuilder()
+                .maximumWeight(lastKnownReviewsMaximumWeight)
+                .weigher((String movieId, List<Review> reviews) -> 1 + reviews.size())
+                .expireAfterWrite(lastKnownReviewsExpireAfter)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lastKnownReviews, "lastKnownReviews");
+        // the raw path keeps a copy of the review bytes it passed through, bounded by their size; bodies over
+        // maxEntrySize are not copied at all
+        this.lastKnownReviewsJsonMaxEntryBytes = Math.toIntExact(lastKnownReviewsJsonMaxEntrySize.toBytes());
+        this.lastKnownReviewsJson = Caffeine.newBuilder()
+                .maximumWeight(lastKnownReviewsJsonMaximumSize.toBytes())
+                .weigher((String movieId, byte[] reviewsJson) -> reviewsJson.length)
+                .expireAfterWrite(lastKnownReviewsExpireAfter)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lastKnownReviewsJson, "lastKnownReviewsJson");
+        this.reviewsTimedOut = degradedReviewsCounter(meterRegistry, "timeout");
+        this.reviewsFailed = degradedReviewsCounter(meterRegistry, "error");
+    }
+
+    private static Counter degradedReviewsCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("movies.reviews.degraded")
+                .description("Movies returned with partial reviews because the reviews call missed its budget or failed")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public Mono<Movie> retrieveMovie(String movieId) {
+        if (aggregationMode == AggregationMode.SEQUENTIAL) return retrieveMovieSequentially(movieId);
+        return retrieveMovieConcurrently(movieId);
+    }
+
+    // same JSON as retrieveMovie, but the review bytes go from the review service's response straight into ours:
+    // only the movie info is encoded here, as the prefix spliced in front of them. The reviews are only requested
+    // once the prefix is out, so pooled review buffers are never queued behind a movie info that may still fail,
+    // and any buffer dropped by an error or a cancel is released
+    public Flux<DataBuffer> retrieveMovieJson(String movieId) {
+        var movieInfoPrefix = moviesInfoClient.retrieveMovieInfo(movieId)
+                .map(this::encodeMovieInfoPrefix);
+
+        return Flux.concat(movieInfoPrefix, retrieveReviewsJson(movieId))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    // the raw counterpart of retrieveReviews closed by the suffix that carries reviewsPartial. In degraded mode the
+    // budget and the fallback only apply until the first review buffer: once bytes are written they cannot be
+    // replaced, so a later failure ends the response. The fallback serves the last bytes this path passed through,
+    // or else the last reviews the decoded path saw
+    private Flux<DataBuffer> retrieveReviewsJson(String movieId) {
+        var reviewsJson = reviewRestClient.retrieveReviewsJson(movieId);
+        if (!degradedEnabled) return reviewsJson.concatWith(movieSuffix(COMPLETE_MOVIE_SUFFIX));
+
+        return Flux.defer(() -> {
+            var started = new AtomicBoolean();
+            return recordLastKnownReviewsJson(movieId, reviewsJson)
+                    .timeout(Mono.delay(reviewsBudget), buffer -> Mono.never())
+                    .doOnNext(buffer -> started.set(true))
+                    .concatWith(movieSuffix(COMPLETE_MOVIE_SUFFIX))
+                    .onErrorResume(ex -> !started.get(), ex -> {
+                        (isTimeout(ex) ? reviewsTimedOut : reviewsFailed).increment();
+                        return Mono.fromCallable(() -> DefaultDataBufferFactory.sharedInstance.wrap(lastKnownReviewsJson(movieId)))
+                                .concatWith(movieSuffix(PARTIAL_MOVIE_SUFFIX));
+                    });
+        });
+    }
+
+    // copies the buffers as they pass, only as long as the body stays under maxEntrySize
+    private Flux<DataBuffer> recordLastKnownReviewsJson(String movieId, Flux<DataBuffer> reviewsJson) {
+        return Flux.defer(() -> {
+            var copy = new ByteArrayOutputStream();
+            var tooLarge = new AtomicBoolean();
+            return reviewsJson
+                    .doOnNext(buffer -> {
+                        if (tooLarge.get()) return;
+                        if (copy.size() + buffer.readableByteCount() > lastKnownReviewsJsonMaxEntryBytes) {
+                            tooLarge.set(true);
+                            copy.reset();
+                            return;
+                        }
+                        copy.writeBytes(copyOf(buffer));
+                    })
+                    .doOnComplete(() -> {
+                        if (!tooLarge.get()) lastKnownReviewsJson.put(movieId, copy.toByteArray());
+                    });
+        });
+    }
+
+    private byte[] lastKnownReviewsJson(String movieId) throws JsonProcessingException {
+        var reviewsJson = lastKnownReviewsJson.getIfPresent(movieId);
+        if (Objects.nonNull(reviewsJson)) return reviewsJson;
+        var reviews = lastKnownReviews.getIfPresent(movieId);
+        return objectMapper.writeValueAsBytes(Objects.isNull(reviews) ? List.of() : reviews);
+    }
+
+    // read through a view so the buffer's own read position is left for the response
+    private static byte[] copyOf(DataBuffer dataBuffer) {
+        var bytes = new byte[dataBuffer.readableByteCount()];
+        dataBuffer.asByteBuffer().get(bytes);
+        return bytes;
+    }
+
+    private static Mono<DataBuffer> movieSuffix(byte[] movieSuffix) {
+        return Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(movieSuffix));
+    }
+
+    private DataBuffer encodeMovieInfoPrefix(MovieInfo movieInfo) {
+        try {
+            var movieInfoJson = objectMapper.writeValueAsBytes(movieInfo);
+            var prefix = new byte[MOVIE_INFO_FIELD.length + movieInfoJson.length + REVIEW_LIST_FIELD.length];
+            System.arraycopy(MOVIE_INFO_FIELD, 0, prefix, 0, MOVIE_INFO_FIELD.length);
+            System.arraycopy(movieInfoJson, 0, prefix, MOVIE_INFO_FIELD.length, movieInfoJson.length);
+            System.arraycopy(REVIEW_LIST_FIELD, 0, prefix, MOVIE_INFO_FIELD.length + movieInfoJson.length, REVIEW_LIST_FIELD.length);
+            return DefaultDataBufferFactory.sharedInstance.wrap(prefix);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("MovieInfo could not be encoded : " + movieInfo.getMovieInfoId(), ex);
+        }
+    }
+
+    public Mono<MovieSummary> retrieveMovieSummary(String movieId) {
+        var movieInfoMono = moviesInfoClient.retrieveMovieInfo(movieId);
+        if (aggregationMode == AggregationMode.SEQUENTIAL) {
+            return movieInfoMono.flatMap(movieInfo -> reviewRestClient.retrieveReviewSummary(movieId)
+                    .map(reviewSummary -> new MovieSummary(movieInfo, reviewSummary)));
+        }
+        return Mono.zip(movieInfoMono, reviewRestClient.retrieveReviewSummary(movieId), MovieSummary::new);
+    }
+
+    // movie info goes out first, then every review as it is decoded; nothing is collected so memory stays flat
+    public Flux<MovieEvent> streamMovie(String movieId) {
+        var movieInfoEvents = moviesInfoClient.retrieveMovieInfo(movieId).map(MovieEvent::of);
+        var reviewEvents = reviewClient.streamReviews(movieId).map(MovieEvent::of);
+
+        if (aggregationMode == AggregationMode.SEQUENTIAL) return Flux.concat(movieInfoEvents, reviewEvents);
+        return Flux.mergeSequential(STREAM_PREFETCH, movieInfoEvents, reviewEvents);
+    }
+
+    public Flux<MovieResult> retrieveMovies(List<String> movieIds, int concurrency, boolean ordered) {
+        var movieIdsFlux = Flux.fromIterable(movieIds);
+        if (ordered) return movieIdsFlux.flatMapSequential(this::retrieveMovieResult, concurrency);
+        return movieIdsFlux.flatMap(this::retrieveMovieResult, concurrency);
+    }
+
+    private Mono<MovieResult> retrieveMovieResult(String movieId) {
+        return retrieveMovie(movieId)
+                .map(movie -> MovieResult.ok(movieId, movie))
+                .switchIfEmpty(Mono.fromSupplier(() -> MovieResult.failed(movieId, HttpStatus.NOT_FOUND.value(),
+                        "No Movie available for passed movieId : " + movieId)))
+                .onErrorResume(ex -> Mono.just(toFailedResult(movieId, ex)));
+    }
+
+    private MovieResult toFailedResult(String movieId, Throwable ex) {
+        if (ex instanceof MoviesInfoClientException) {
+            return MovieResult.failed(movieId, ((MoviesInfoClientException) ex).getStatusCode(), ex.getMessage());
+        }
+        if (ex instanceof DeadlineExceededException) {
+            return MovieResult.failed(movieId, HttpStatus.GATEWAY_TIMEOUT.value(), ex.getMessage());
+        }
+        if (ex instanceof CircuitBreakerOpenException) {
+            return MovieResult.failed(movieId, HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+        }
+        return MovieResult.failed(movieId, HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.getMessage());
+    }
+
+    private Mono<Movie> retrieveMovieSequentially(String movieId) {
+        return moviesInfoClient.retrieveMovieInfo(movieId)
+                .flatMap(movieInfo -> retrieveReviews(movieId)
+                        .map(reviews -> reviews.toMovie(movieInfo)));
+    }
+
+    // zip subscribes to both calls up front and cancels the reviews call as soon as movie-info errors or is empty
+    private Mono<Movie> retrieveMovieConcurrently(String movieId) {
+        var movieInfoMono = moviesInfoClient.retrieveMovieInfo(movieId);
+        var reviewsMono = retrieveReviews(movieId);
+
+        return Mono.zip(movieInfoMono, reviewsMono, (movieInfo, reviews) -> reviews.toMovie(movieInfo));
+    }
+
+    // in degraded mode a reviews call that misses its budget or fails is cancelled and answered with the
+    // last reviews seen for the movie (or none), so the movie still renders and the response time is capped
+    private Mono<MovieReviews> retrieveReviews(String movieId) {
+        var reviewsMono = reviewClient
+                .retrieveReviews(movieId)
+                .collectList();
+        if (!degradedEnabled) return reviewsMono.map(MovieReviews::complete);
+
+        return reviewsMono
+                .timeout(reviewsBudget)
+                .doOnNext(reviews -> lastKnownReviews.put(movieId, reviews))
+                .map(MovieReviews::complete)
+                .onErrorResume(ex -> {
+                    (isTimeout(ex) ? reviewsTimedOut : reviewsFailed).increment();
+                    var reviews = lastKnownReviews.getIfPresent(movieId);
+                    return Mono.just(MovieReviews.partial(Objects.isNull(reviews) ? List.of() : reviews));
+                });
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        return ex instanceof TimeoutException || ex instanceof DeadlineExceededException;
+    }
+
+    private static class MovieReviews {
+
+        private final List<Review> reviews;
+        private final boolean partial;
+
+        private MovieReviews(List<Review> reviews, boolean partial) {
+            this.reviews = reviews;
+            this.partial = partial;
+        }
+
+        static MovieReviews complete(List<Review> reviews) {
+            return new MovieReviews(reviews, false);
+        }
+
+        static MovieReviews partial(List<Review> reviews) {
+            return new MovieReviews(reviews, true);
+        }
+
+        Movie toMovie(MovieInfo movieInfo) {
+            return new Movie(movieInfo, reviews, partial);
+        }
+    }
+}
@@ -1,17 +1,68 @@
 package com.reactivespring.util;
 
+import com.reactivespring.deadline.Deadline;
 import com.reactivespring.exception.MoviesInfoServerException;
 import com.reactivespring.exception.ReviewsServerException;
-import reactor.core.Exceptions;
+import com.reactivespring.resilience.ResilienceProperties;
+import com.reactivespring.resilience.RetryBudget;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class RetryUtils {
 
-    public static Retry retrySpec() {
-        return Retry.fixedDelay(3, Duration.ofSeconds(1))
-                .filter(ex -> ex instanceof MoviesInfoServerException || ex instanceof ReviewsServerException)
-                .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> Exceptions.propagate(retrySignal.failure()));
+    public static final String RETRIED = "retried";
+    public static final String EXHAUSTED = "exhausted";
+    public static final String BUDGET_EXHAUSTED = "budget_exhausted";
+    public static final String DEADLINE_EXCEEDED = "deadline_exceeded";
+
+    public static boolean isRetryable(Throwable ex) {
+        return ex instanceof MoviesInfoServerException
+                || ex instanceof ReviewsServerException
+                || ex instanceof WebClientRequestException
+                || ex instanceof TimeoutException;
+    }
+
+    // exponential backoff with full jitter, every retry also has to take a token from the shared budget
+    public static Retry retrySpec(ResilienceProperties.RetryProperties retryProperties,
+                                  RetryBudget retryBudget,
+                                  Consumer<String> onRetryOutcome) {
+        return Retry.from(retrySignals -> retrySignals.concatMap(retrySignal -> {
+            var failure = retrySignal.failure();
+            if (!isRetryable(failure)) return Mono.error(failure);
+            if (retrySignal.totalRetries() >= retryProperties.getMaxRetries()) {
+                onRetryOutcome.accept(EXHAUSTED);
+                return Mono.error(failure);
+            }
+            var backoff = fullJitterBackoff(retrySignal.totalRetries(), retryProperties);
+            return Mono.deferContextual(contextView -> {
+                // no point sleeping through the rest of the caller's deadline, the retry could never finish in time
+                var deadline = Deadline.from(contextView);
+                if (deadline.isPresent() && deadline.get().remaining().compareTo(backoff) <= 0) {
+                    onRetryOutcome.accept(DEADLINE_EXCEEDED);
+                    return Mono.error(failure);
+                }
+                if (!retryBudget.tryAcquire()) {
+                    onRetryOutcome.accept(BUDGET_EXHAUSTED);
+                    return Mono.error(failure);
+                }
+                onRetryOutcome.accept(RETRIED);
+                return Mono.delay(backoff);
+            });
+        }));
+    }
+
+    public static Duration fullJitterBackoff(long retryNumber, ResilienceProperties.RetryProperties retryProperties) {
+        var firstBackoffNanos = retryProperties.getFirstBackoff().toNanos();
+        var maxBackoffNanos = retryProperties.getMaxBackoff().toNanos();
+        var ceilingNanos = retryNumber >= 62 || firstBackoffNanos > (maxBackoffNanos >> retryNumber) ?
+                maxBackoffNanos :
+                firstBackoffNanos << retryNumber;
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceilingNanos + 1));
     }
 }
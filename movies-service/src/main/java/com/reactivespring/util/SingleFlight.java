@@ -0,0 +1,82 @@
+package com.reactivespring.util;
+
+import com.reactivespring.deadline.Deadline;
+import com.reactivespring.tracing.SignalTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flux<V>> inFlightCalls = new ConcurrentHashMap<>();
+    private final Counter executedCalls;
+    private final Counter coalescedCalls;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executedCalls = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedCalls = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlightCalls, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return executeMany(key, () -> call.get().flux()).singleOrEmpty();
+    }
+
+    // subscribers that join while a call for the same key is in flight get its collected result replayed;
+    // the upstream is cancelled only once every subscriber has cancelled. The call runs with the deadline and the
+    // request id of the caller that started it and nothing else from its Context; callers that join later still
+    // apply their own deadline downstream
+    public Flux<V> executeMany(K key, Supplier<Flux<V>> call) {
+        return Flux.deferContextual(contextView -> {
+            var executed = new AtomicBoolean();
+            var sharedCall = inFlightCalls.computeIfAbsent(key, k -> {
+                executed.set(true);
+                return share(k, call, sharedContext(contextView));
+            });
+            (executed.get() ? executedCalls : coalescedCalls).increment();
+            return sharedCall;
+        });
+    }
+
+    private static Context sharedContext(ContextView callerContext) {
+        var context = Deadline.from(callerContext)
+                .map(deadline -> Deadline.into(deadline).apply(Context.empty()))
+                .orElse(Context.empty());
+        var requestId = SignalTracer.requestId(callerContext);
+        if (requestId.isEmpty()) return context;
+        return SignalTracer.withTrace(requestId.get(), callerContext.getOrDefault(SignalTracer.SAMPLED, false))
+                .apply(context);
+    }
+
+    private Flux<V> share(K key, Supplier<Flux<V>> call, Context sharedContext) {
+        var sharedCall = new AtomicReference<Flux<V>>();
+        sharedCall.set(Flux.defer(call)
+                .collectList()
+                .contextWrite(context -> sharedContext)
+                .doFinally(signalType -> inFlightCalls.remove(key, sharedCall.get()))
+                .flux()
+                .replay(1)
+                .refCount()
+                .flatMapIterable(Function.identity()));
+        return sharedCall.get();
+    }
+}
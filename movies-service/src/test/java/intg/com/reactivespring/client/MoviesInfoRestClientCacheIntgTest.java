@@ -0,0 +1,88 @@
+package com.reactivespring.client;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(
+        properties = {
+                "restClient.moviesInfoUrl=http://localhost:${wiremock.server.port}/v1/movieinfos",
+                "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+                "restClient.moviesInfoCache.enabled=true"
+        }
+)
+public class MoviesInfoRestClientCacheIntgTest {
+
+    @Autowired
+    MoviesInfoRestClient moviesInfoRestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.resetAllRequests();
+    }
+
+    @Test
+    void testRetrieveMovieInfoIsServedFromCache() {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/20"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("20"))
+                    .assertNext(movieInfo -> assertEquals("Batman Begins", movieInfo.getName()))
+                    .verifyComplete();
+        }
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/20")));
+    }
+
+    @Test
+    void testRetrieveMovieInfoCachesNotFound() {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/21"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(404))
+        );
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("21"))
+                    .expectErrorSatisfies(ex -> assertEquals(404, ((MoviesInfoClientException) ex).getStatusCode()))
+                    .verify();
+        }
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/21")));
+    }
+
+    @Test
+    void testRetrieveMovieInfoWithEmptyBodyIsServerError() {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/22"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(200)
+                                        .withHeader("Content-type", "application/json"))
+        );
+
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("22"))
+                .expectError(MoviesInfoServerException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,73 @@
+package com.reactivespring.client;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(
+        properties = {
+                "restClient.moviesInfoUrl=http://localhost:${wiremock.server.port}/v1/movieinfos",
+                "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+                "restClient.moviesInfoCache.enabled=true",
+                "restClient.moviesInfoCache.refreshAfter=100ms"
+        }
+)
+public class MoviesInfoRestClientRevalidationIntgTest {
+
+    @Autowired
+    MoviesInfoRestClient moviesInfoRestClient;
+
+    @Test
+    void testStaleEntryIsRevalidatedWithETag() throws InterruptedException {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/22"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withHeader("ETag", "\"22-0\"")
+                                        .withBodyFile("movieinfo.json"))
+        );
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/22"))
+                        .withHeader("If-None-Match", WireMock.equalTo("\"22-0\""))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(304)
+                                        .withHeader("ETag", "\"22-0\""))
+        );
+
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("22"))
+                .assertNext(movieInfo -> assertEquals("Batman Begins", movieInfo.getName()))
+                .verifyComplete();
+
+        Thread.sleep(Duration.ofMillis(200).toMillis());
+
+        // the stale entry is served right away while the conditional reload runs in the background
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("22"))
+                .assertNext(movieInfo -> assertEquals("Batman Begins", movieInfo.getName()))
+                .verifyComplete();
+
+        Thread.sleep(Duration.ofMillis(200).toMillis());
+
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("22"))
+                .assertNext(movieInfo -> assertEquals("Batman Begins", movieInfo.getName()))
+                .verifyComplete();
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/22"))
+                .withoutHeader("If-None-Match"));
+        WireMock.verify(WireMock.moreThanOrExactly(1), WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/22"))
+                .withHeader("If-None-Match", WireMock.equalTo("\"22-0\"")));
+    }
+}
@@ -0,0 +1,64 @@
+package com.reactivespring.client;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.config.WireFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@AutoConfigureWireMock(port = 8086)
+@TestPropertySource(
+        properties = {
+                "restClient.moviesInfoUrl=http://localhost:8086/v1/movieinfos",
+                "restClient.reviewsUrl=http://localhost:8086/v1/reviews",
+                "restClient.moviesInfoCache.enabled=false",
+                "web-client.wireFormat=SMILE"
+        }
+)
+public class WireFormatIntgTest {
+
+    private static final String SMILE = WireFormat.SMILE.getMediaType().toString();
+
+    @Autowired
+    MoviesInfoRestClient moviesInfoRestClient;
+
+    @Autowired
+    ReviewRestClient reviewRestClient;
+
+    // the stub answers in JSON, the response content type decides the decoder whatever was asked for
+    @Test
+    void testClientsAskBackendsForSmile() {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/1"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(reviewRestClient.retrieveReviews("1"))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        WireMock.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/1"))
+                .withHeader("Accept", WireMock.equalTo(SMILE)));
+        WireMock.verify(WireMock.getRequestedFor(WireMock.urlPathEqualTo("/v1/reviews"))
+                .withHeader("Accept", WireMock.equalTo(SMILE)));
+    }
+}
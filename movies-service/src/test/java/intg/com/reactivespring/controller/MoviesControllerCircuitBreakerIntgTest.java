@@ -0,0 +1,98 @@
+package com.reactivespring.controller;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.domain.MovieResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(
+        properties = {
+                "restClient.moviesInfoUrl=http://localhost:${wiremock.server.port}/v1/movieinfos",
+                "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+                "restClient.moviesInfoCache.enabled=false",
+                "resilience.downstreams.moviesInfo.retry.maxRetries=0",
+                "resilience.downstreams.moviesInfo.circuitBreaker.slidingWindowSize=2",
+                "resilience.downstreams.moviesInfo.circuitBreaker.minimumNumberOfCalls=2",
+                "resilience.downstreams.moviesInfo.circuitBreaker.openDuration=1m"
+        }
+)
+public class MoviesControllerCircuitBreakerIntgTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.resetAllRequests();
+    }
+
+    @Test
+    void testRetrieveMoviesByIdsReportsOpenCircuitAs503() {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/70"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(500)
+                                        .withBody("MovieInfo Service Unavailable"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/71"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        // two failures out of two calls open the moviesInfo circuit
+        for (int i = 0; i < 2; i++) {
+            webTestClient
+                    .get()
+                    .uri("/v1/movies/{id}", 70)
+                    .exchange()
+                    .expectStatus()
+                    .is5xxServerError();
+        }
+
+        webTestClient
+                .get()
+                .uri("/v1/movies?ids={ids}", "70,71")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieResult.class)
+                .consumeWith(movieResultsExchangeResult -> {
+                    var movieResults = movieResultsExchangeResult.getResponseBody();
+                    assertNotNull(movieResults);
+                    assertEquals(2, movieResults.size());
+                    assertEquals(503, movieResults.get(0).getStatus());
+                    assertEquals(503, movieResults.get(1).getStatus());
+                });
+
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/71")));
+    }
+}
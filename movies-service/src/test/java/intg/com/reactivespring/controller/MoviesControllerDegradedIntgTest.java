@@ -0,0 +1,212 @@
+package com.reactivespring.controller;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.reactivespring.domain.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@AutoConfigureWireMock(port = 8085)
+@TestPropertySource(
+        properties = {
+                "restClient.moviesInfoUrl=http://localhost:8085/v1/movieinfos",
+                "restClient.reviewsUrl=http://localhost:8085/v1/reviews",
+                "restClient.moviesInfoCache.enabled=false",
+                "movies.degraded.enabled=true",
+                "movies.degraded.reviewsBudget=300ms",
+                "resilience.downstreams.reviews.circuitBreaker.minimumNumberOfCalls=1000"
+        }
+)
+public class MoviesControllerDegradedIntgTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        WireMock.resetAllRequests();
+    }
+
+    @Test
+    void testRetrieveMovieByIdWith5xxFromReviewIsPartial() {
+        var mviId = 50;
+        stubMovieInfo(mviId);
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(500)
+                                        .withBody("Review Service Unavailable"))
+        );
+
+        var movie = retrieveMovie(mviId);
+
+        assertEquals("Batman Begins", movie.getMovieInfo().getName());
+        assertEquals(0, movie.getReviewList().size());
+        assertTrue(movie.isReviewsPartial());
+    }
+
+    @Test
+    void testRetrieveMovieByIdWithSlowReviewIsCappedAtBudget() {
+        var mviId = 51;
+        stubMovieInfo(mviId);
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json")
+                                        .withFixedDelay(2000))
+        );
+
+        var start = System.currentTimeMillis();
+        var movie = retrieveMovie(mviId);
+
+        assertTrue(System.currentTimeMillis() - start < 1500);
+        assertEquals("Batman Begins", movie.getMovieInfo().getName());
+        assertEquals(0, movie.getReviewList().size());
+        assertTrue(movie.isReviewsPartial());
+    }
+
+    @Test
+    void testRetrieveMovieByIdServesLastKnownReviewsWhenReviewFails() {
+        var mviId = 52;
+        stubMovieInfo(mviId);
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        var movie = retrieveMovie(mviId);
+        assertEquals(2, movie.getReviewList().size());
+        assertFalse(movie.isReviewsPartial());
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(500)
+                                        .withBody("Review Service Unavailable"))
+        );
+
+        var degradedMovie = retrieveMovie(mviId);
+        assertEquals(2, degradedMovie.getReviewList().size());
+        assertTrue(degradedMovie.isReviewsPartial());
+    }
+
+    @Test
+    void testRetrieveMovieJsonByIdFallsBackLikeRetrieveMovieById() {
+        var mviId = 53;
+        stubMovieInfo(mviId);
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        var rawMovie = retrieveMovieJson(mviId);
+        assertEquals(2, rawMovie.getReviewList().size());
+        assertFalse(rawMovie.isReviewsPartial());
+
+        retrieveMovie(mviId);
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(500)
+                                        .withBody("Review Service Unavailable"))
+        );
+
+        var degradedRawMovie = retrieveMovieJson(mviId);
+
+        assertEquals(retrieveMovie(mviId), degradedRawMovie);
+        assertEquals(2, degradedRawMovie.getReviewList().size());
+        assertTrue(degradedRawMovie.isReviewsPartial());
+    }
+
+    @Test
+    void testRetrieveMovieJsonByIdServesItsOwnLastKnownReviewsWhenReviewFails() {
+        var mviId = 54;
+        stubMovieInfo(mviId);
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        var rawMovie = retrieveMovieJson(mviId);
+        assertEquals(2, rawMovie.getReviewList().size());
+        assertFalse(rawMovie.isReviewsPartial());
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(500)
+                                        .withBody("Review Service Unavailable"))
+        );
+
+        var degradedRawMovie = retrieveMovieJson(mviId);
+        assertEquals(rawMovie.getReviewList(), degradedRawMovie.getReviewList());
+        assertTrue(degradedRawMovie.isReviewsPartial());
+    }
+
+    private void stubMovieInfo(int mviId) {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+    }
+
+    private Movie retrieveMovie(int mviId) {
+        var movie = webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(movie);
+        return movie;
+    }
+
+    private Movie retrieveMovieJson(int mviId) {
+        var movie = webTestClient
+                .get()
+                .uri("/v1/movies/{id}/raw", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(movie);
+        return movie;
+    }
+}
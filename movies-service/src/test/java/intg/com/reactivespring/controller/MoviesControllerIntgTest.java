@@ -1,7 +1,14 @@
 package com.reactivespring.controller;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.reactivespring.deadline.Deadline;
 import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieEvent;
+import com.reactivespring.domain.MovieResult;
+import com.reactivespring.domain.MovieSummary;
+import com.reactivespring.tracing.SignalTracer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -10,12 +17,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
@@ -24,7 +39,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 @TestPropertySource(
         properties = {
                 "restClient.moviesInfoUrl=http://localhost:8084/v1/movieinfos",
-                "restClient.reviewsUrl=http://localhost:8084/v1/reviews"
+                "restClient.reviewsUrl=http://localhost:8084/v1/reviews",
+                "restClient.moviesInfoCache.enabled=false"
         }
 )
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -33,6 +49,11 @@ public class MoviesControllerIntgTest {
     @Autowired
     WebTestClient webTestClient;
 
+    @BeforeEach
+    void setUp() {
+        WireMock.resetAllRequests();
+    }
+
     @Test
     void testRetrieveMovieById() {
         var mviId = 1;
@@ -95,6 +116,66 @@ public class MoviesControllerIntgTest {
                 .is4xxClientError();
     }
 
+    @Test
+    void testRetrieveMovieByIdWithEmptyMovieInfoBodyIs5xx() {
+        var mviId = 3;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(200)
+                                        .withHeader("Content-type", "application/json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .exchange()
+                .expectStatus()
+                .is5xxServerError()
+                .expectBody(String.class)
+                .isEqualTo("Empty response from MovieInfoService for movieId : " + mviId);
+    }
+
+    @Test
+    void testRetrieveMovieByIdWith404FromMovieInfoDoesNotWaitForReviews() {
+        var mviId = 2;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(404))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json")
+                                        .withFixedDelay(3000))
+        );
+
+        var start = System.currentTimeMillis();
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+
+        assertTrue(System.currentTimeMillis() - start < 2500);
+    }
+
     @Test
     void testRetrieveMovieById404ErrorFromReview() {
         var mviId = 1;
@@ -157,6 +238,13 @@ public class MoviesControllerIntgTest {
     @Test
     void testRetrieveMovieById5xxErrorFromReview() {
         var mviId = 1;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
 
         WireMock.stubFor(
                 WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
@@ -175,4 +263,442 @@ public class MoviesControllerIntgTest {
                 .expectBody(String.class)
                 .isEqualTo("Server exception in ReviewService : Review Service Unavailable");
     }
+
+    @Test
+    void testRetrieveMoviesByIdsReportsFailuresInline() {
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/10"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos/11"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(404))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.matching("1[01]"))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies?ids={ids}", "10,11")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieResult.class)
+                .consumeWith(movieResultsExchangeResult -> {
+                    var movieResults = movieResultsExchangeResult.getResponseBody();
+                    assertNotNull(movieResults);
+                    assertEquals(2, movieResults.size());
+                    assertEquals("10", movieResults.get(0).getMovieId());
+                    assertEquals(200, movieResults.get(0).getStatus());
+                    assertEquals(2, movieResults.get(0).getMovie().getReviewList().size());
+                    assertEquals("11", movieResults.get(1).getMovieId());
+                    assertEquals(404, movieResults.get(1).getStatus());
+                });
+    }
+
+    @Test
+    void testRetrieveMoviesByIdsWithTooManyIds() {
+        var ids = String.join(",", Collections.nCopies(101, "1"));
+
+        webTestClient
+                .get()
+                .uri("/v1/movies?ids={ids}", ids)
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void testRetrieveMovieSummaryById() {
+        var mviId = 31;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/reviews/summary?movieInfoId=" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviewsummary.json"))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}/summary", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(MovieSummary.class)
+                .consumeWith(movieSummaryExchangeResult -> {
+                    var movieSummary = movieSummaryExchangeResult.getResponseBody();
+                    assertNotNull(movieSummary);
+                    assertEquals("Batman Begins", movieSummary.getMovieInfo().getName());
+                    assertEquals(2, movieSummary.getReviewSummary().getCount());
+                    assertEquals(8.5, movieSummary.getReviewSummary().getAverageRating());
+                    assertEquals(1L, movieSummary.getReviewSummary().getRatingHistogram().get(9));
+                });
+
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/v1/reviews")));
+    }
+
+    @Test
+    void testRetrieveMovieJsonByIdMatchesDecodedMovie() {
+        var mviId = 32;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        var decodedMovie = webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}/raw", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBody(Movie.class)
+                .isEqualTo(decodedMovie);
+    }
+
+    @Test
+    void testRetrieveMovieJsonByIdRetries5xxFromReview() {
+        var mviId = 34;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .inScenario("raw-retry")
+                        .whenScenarioStateIs(Scenario.STARTED)
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(500)
+                                        .withBody("Review Service Unavailable"))
+                        .willSetStateTo("recovered")
+        );
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .inScenario("raw-retry")
+                        .whenScenarioStateIs("recovered")
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}/raw", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assertNotNull(movie);
+                    assertEquals(2, movie.getReviewList().size());
+                    assertFalse(movie.isReviewsPartial());
+                });
+
+        WireMock.verify(2, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId))));
+    }
+
+    @Test
+    void testRetrieveMovieJsonByIdStreamsLargeReviewsThrough() {
+        var mviId = 35;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        // several hundred KB, streamed through in many buffers
+        var reviewsJson = IntStream.rangeClosed(1, 5000)
+                .mapToObj(reviewId -> "{\"reviewId\":\"" + reviewId + "\",\"movieInfoId\":" + mviId
+                        + ",\"comment\":\"Awesome Movie\",\"rating\":9.0}")
+                .collect(Collectors.joining(",", "[", "]"));
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBody(reviewsJson))
+        );
+
+        webTestClient
+                .mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .build()
+                .get()
+                .uri("/v1/movies/{id}/raw", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assertNotNull(movie);
+                    assertEquals(5000, movie.getReviewList().size());
+                    assertFalse(movie.isReviewsPartial());
+                });
+
+        WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId))));
+    }
+
+    @Test
+    void testRetrieveMovieJsonByIdWith404FromReview() {
+        var mviId = 33;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withStatus(404))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}/raw", mviId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assertNotNull(movie);
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertEquals(0, movie.getReviewList().size());
+                });
+    }
+
+    @Test
+    void testStreamMovieById() {
+        var mviId = 30;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieEvent.class)
+                .consumeWith(movieEventsExchangeResult -> {
+                    var movieEvents = movieEventsExchangeResult.getResponseBody();
+                    assertNotNull(movieEvents);
+                    assertEquals(3, movieEvents.size());
+                    assertEquals(MovieEvent.MOVIE_INFO, movieEvents.get(0).getType());
+                    assertEquals("Batman Begins", movieEvents.get(0).getMovieInfo().getName());
+                    assertEquals(MovieEvent.REVIEW, movieEvents.get(1).getType());
+                    assertEquals(MovieEvent.REVIEW, movieEvents.get(2).getType());
+                });
+    }
+
+    @Test
+    void testStreamMovieByIdOutlivesTheDeadline() {
+        var mviId = 31;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json")
+                                        .withChunkedDribbleDelay(5, 1500))
+        );
+
+        // the first review is complete in the third chunk, well within the deadline, the last one arrives after it
+        var start = System.currentTimeMillis();
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header(Deadline.TIMEOUT_HEADER, "1200")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieEvent.class)
+                .consumeWith(movieEventsExchangeResult -> {
+                    var movieEvents = movieEventsExchangeResult.getResponseBody();
+                    assertNotNull(movieEvents);
+                    assertEquals(3, movieEvents.size());
+                    assertEquals(MovieEvent.REVIEW, movieEvents.get(2).getType());
+                });
+
+        assertTrue(System.currentTimeMillis() - start >= 1200);
+    }
+
+    @Test
+    @Order(Integer.MAX_VALUE)
+    void testRetrieveMovieByIdPropagatesDeadline() {
+        var mviId = 40;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json")
+                                        .withFixedDelay(2000))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        var start = System.currentTimeMillis();
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .header(Deadline.TIMEOUT_HEADER, "800")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertTrue(System.currentTimeMillis() - start < 1800);
+        WireMock.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                .withHeader(Deadline.TIMEOUT_HEADER, WireMock.matching("\\d+")));
+    }
+
+    @Test
+    void testRetrieveMovieByIdPropagatesDeadlineAndRequestIdThroughSingleFlight() {
+        var mviId = 42;
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("movieinfo.json"))
+        );
+
+        WireMock.stubFor(
+                WireMock.get(WireMock.urlPathEqualTo("/v1/reviews"))
+                        .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                        .willReturn(
+                                WireMock.aResponse()
+                                        .withHeader("Content-type", "application/json")
+                                        .withBodyFile("reviews.json"))
+        );
+
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", mviId)
+                .header(Deadline.TIMEOUT_HEADER, "900")
+                .header(SignalTracer.REQUEST_ID_HEADER, "request-42")
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // a budget of at most 900ms, not a share of the 5s default
+        WireMock.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos" + "/" + mviId))
+                .withHeader(Deadline.TIMEOUT_HEADER, WireMock.matching("\\d{1,3}"))
+                .withHeader(SignalTracer.REQUEST_ID_HEADER, WireMock.equalTo("request-42")));
+        WireMock.verify(WireMock.getRequestedFor(WireMock.urlPathEqualTo("/v1/reviews"))
+                .withQueryParam("movieInfoId", WireMock.equalTo(String.valueOf(mviId)))
+                .withHeader(Deadline.TIMEOUT_HEADER, WireMock.matching("\\d{1,3}"))
+                .withHeader(SignalTracer.REQUEST_ID_HEADER, WireMock.equalTo("request-42")));
+    }
+
+    @Test
+    void testRetrieveMovieByIdWithExpiredDeadline() {
+        webTestClient
+                .get()
+                .uri("/v1/movies/{id}", 41)
+                .header(Deadline.TIMEOUT_HEADER, "0")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlEqualTo("/v1/movieinfos/41")));
+    }
 }
@@ -0,0 +1,63 @@
+package com.reactivespring.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DownstreamMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DownstreamMetrics downstreamMetrics = new DownstreamMetrics(meterRegistry);
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/v1/reviews")).build();
+
+    @Test
+    void latencyAndPayloadSizeAreRecordedOncePerExchange() {
+        ExchangeFunction exchangeFunction = clientRequest -> Mono.just(
+                ClientResponse.create(HttpStatus.NOT_FOUND).body("not found").build());
+        var filter = downstreamMetrics.instrument("reviews");
+
+        var body = filter.filter(request, exchangeFunction)
+                .flatMap(response -> response.bodyToMono(String.class));
+
+        StepVerifier.create(body)
+                .expectNext("not found")
+                .verifyComplete();
+
+        var timer = meterRegistry.get("movies.downstream.latency")
+                .tag("downstream", "reviews")
+                .tag("status", "404")
+                .timer();
+        var payloadSize = meterRegistry.get("movies.downstream.response.size")
+                .tag("downstream", "reviews")
+                .summary();
+        assertEquals(1, timer.count());
+        assertEquals(1, payloadSize.count());
+        assertEquals(9, payloadSize.totalAmount());
+    }
+
+    @Test
+    void connectionFailuresAreRecordedAsIoErrors() {
+        ExchangeFunction exchangeFunction = clientRequest -> Mono.error(new IOException("connection refused"));
+        var filter = downstreamMetrics.instrument("moviesInfo");
+
+        StepVerifier.create(filter.filter(request, exchangeFunction))
+                .verifyError(IOException.class);
+
+        var timer = meterRegistry.get("movies.downstream.latency")
+                .tag("downstream", "moviesInfo")
+                .tag("status", "IO_ERROR")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+}
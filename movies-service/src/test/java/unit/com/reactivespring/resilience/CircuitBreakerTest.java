@@ -0,0 +1,74 @@
+package com.reactivespring.resilience;
+
+import com.reactivespring.exception.CircuitBreakerOpenException;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.util.RetryUtils;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker() {
+        var properties = new ResilienceProperties.CircuitBreakerProperties();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenPermittedCalls(1);
+        return new CircuitBreaker("test", properties, RetryUtils::isRetryable, nanoClock::get);
+    }
+
+    @Test
+    void opensWhenFailureRateIsReachedAndFailsFast() {
+        var circuitBreaker = circuitBreaker();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(circuitBreaker.decorate(Mono.just("ok"))).expectNext("ok").verifyComplete();
+            StepVerifier.create(circuitBreaker.decorate(Mono.error(new MoviesInfoServerException("down"))))
+                    .expectError(MoviesInfoServerException.class)
+                    .verify();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        StepVerifier.create(circuitBreaker.decorate(Mono.just("ok")))
+                .expectError(CircuitBreakerOpenException.class)
+                .verify();
+    }
+
+    @Test
+    void clientErrorsAreNotCountedAsFailures() {
+        var circuitBreaker = circuitBreaker();
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(circuitBreaker.decorate(Mono.error(new MoviesInfoClientException("not found", 404))))
+                    .expectError(MoviesInfoClientException.class)
+                    .verify();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void closesAgainAfterSuccessfulHalfOpenCall() {
+        var circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onError(new MoviesInfoServerException("down"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        nanoClock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        StepVerifier.create(circuitBreaker.decorate(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,87 @@
+package com.reactivespring.resilience;
+
+import com.reactivespring.deadline.Deadline;
+import com.reactivespring.deadline.DeadlineProperties;
+import com.reactivespring.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DownstreamResilienceTest {
+
+    private final DeadlineProperties deadlineProperties = new DeadlineProperties();
+
+    private final DownstreamResilience downstreamResilience = new ResilienceRegistry(new ResilienceProperties(),
+            deadlineProperties, new SimpleMeterRegistry()).forDownstream("test");
+
+    @Test
+    void protectedStreamOutlivesTheDeadlineWhileElementsKeepArriving() {
+        StepVerifier.withVirtualTime(() -> Flux.interval(Duration.ofSeconds(1)).take(5)
+                        .transform(downstreamResilience::protect)
+                        .contextWrite(Deadline.into(Deadline.after(Duration.ofSeconds(2)))))
+                .thenAwait(Duration.ofSeconds(5))
+                .expectNextCount(5)
+                .verifyComplete();
+    }
+
+    @Test
+    void protectedStreamFailsWhenTheFirstElementMissesTheDeadline() {
+        StepVerifier.withVirtualTime(() -> Flux.interval(Duration.ofSeconds(3))
+                        .transform(downstreamResilience::protect)
+                        .contextWrite(Deadline.into(Deadline.after(Duration.ofSeconds(2)))))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void protectedStreamFailsWhenItStallsBetweenElements() {
+        deadlineProperties.setStreamIdleTimeout(Duration.ofSeconds(2));
+
+        StepVerifier.withVirtualTime(() -> Flux.concat(Flux.just(1L), Flux.never())
+                        .transform(downstreamResilience::protect)
+                        .contextWrite(Deadline.into(Deadline.after(Duration.ofSeconds(10)))))
+                .expectNext(1L)
+                .thenAwait(Duration.ofSeconds(2))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void decoratedStreamIsNotRetriedOnceItHasEmitted() {
+        var subscriptions = new AtomicInteger();
+        var call = Flux.concat(Flux.just(1, 2), Flux.<Integer>never())
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        StepVerifier.withVirtualTime(() -> call
+                        .transform(downstreamResilience::decorate)
+                        .contextWrite(Deadline.into(Deadline.after(Duration.ofSeconds(2)))))
+                .expectNext(1, 2)
+                .thenAwait(Duration.ofSeconds(2))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void decoratedStreamIsRetriedWhenItTimesOutBeforeItsFirstElement() {
+        var subscriptions = new AtomicInteger();
+        var call = Flux.defer(() -> subscriptions.incrementAndGet() == 1 ? Flux.<Integer>never() : Flux.just(1, 2));
+
+        StepVerifier.withVirtualTime(() -> call
+                        .transform(downstreamResilience::decorate)
+                        .contextWrite(Deadline.into(Deadline.after(Duration.ofSeconds(2)))))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext(1, 2)
+                .verifyComplete();
+
+        assertEquals(2, subscriptions.get());
+    }
+}
@@ -0,0 +1,58 @@
+package com.reactivespring.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Hedger hedger(double budgetCapacity) {
+        var properties = new ResilienceProperties.HedgingProperties();
+        properties.setEnabled(true);
+        properties.setMaxDelay(Duration.ofMillis(100));
+        properties.setBudgetCapacity(budgetCapacity);
+        return new Hedger("test", properties, meterRegistry);
+    }
+
+    @Test
+    void slowPrimaryIsCancelledWhenHedgeAnswersFirst() {
+        var hedger = hedger(1);
+        var attempts = new AtomicInteger();
+        var primaryCancelled = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(() -> attempts.incrementAndGet() == 1 ?
+                        Flux.just("primary").delaySubscription(Duration.ofSeconds(5)).doOnCancel(primaryCancelled::incrementAndGet) :
+                        Flux.just("hedge")))
+                .thenAwait(Duration.ofMillis(100))
+                .expectNext("hedge")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, primaryCancelled.get());
+        assertEquals(1, meterRegistry.get("hedging.wins").counter().count());
+    }
+
+    @Test
+    void noHedgeIsSentWithoutBudget() {
+        var hedger = hedger(0);
+        var attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(() -> {
+                    attempts.incrementAndGet();
+                    return Flux.just("primary").delaySubscription(Duration.ofSeconds(1));
+                }))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,36 @@
+package com.reactivespring.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    @Test
+    void budgetIsSpentAndRefilledOverTime() {
+        var retryBudget = new RetryBudget(2, 1, nanoClock::get);
+
+        assertTrue(retryBudget.tryAcquire());
+        assertTrue(retryBudget.tryAcquire());
+        assertFalse(retryBudget.tryAcquire());
+
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(retryBudget.tryAcquire());
+        assertFalse(retryBudget.tryAcquire());
+    }
+
+    @Test
+    void budgetNeverExceedsCapacity() {
+        var retryBudget = new RetryBudget(1, 10, nanoClock::get);
+
+        nanoClock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertTrue(retryBudget.tryAcquire());
+        assertFalse(retryBudget.tryAcquire());
+    }
+}
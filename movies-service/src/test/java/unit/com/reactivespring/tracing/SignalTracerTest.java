@@ -0,0 +1,88 @@
+package com.reactivespring.tracing;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.StandardEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignalTracerTest {
+
+    private final Logger tracerLogger = (Logger) LoggerFactory.getLogger(SignalTracing.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private SignalTracer signalTracer;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        tracerLogger.addAppender(appender);
+        signalTracer = new SignalTracer(100, SignalTracer.TraceMode.SAMPLED, new StandardEnvironment());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerLogger.detachAppender(appender);
+    }
+
+    @Test
+    void sampledRequestIsTracedWithRequestIdInMdc() {
+        var traced = Flux.just("a", "b")
+                .transform(signalTracer.flux("test.flux"))
+                .contextWrite(SignalTracer.withTrace("req-1", true));
+
+        StepVerifier.create(traced)
+                .expectNext("a", "b")
+                .verifyComplete();
+
+        var messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+        assertEquals(4, messages.size());
+        assertEquals("test.flux | onNext(a)", messages.get(1));
+        assertTrue(appender.list.stream().allMatch(event -> "req-1".equals(event.getMDCPropertyMap().get("requestId"))));
+    }
+
+    @Test
+    void unsampledRequestOnlyTracesErrors() {
+        var failing = Mono.<String>error(new IllegalStateException("boom"))
+                .transform(signalTracer.mono("test.mono"))
+                .contextWrite(SignalTracer.withTrace("req-2", false));
+        var succeeding = Mono.just("a")
+                .transform(signalTracer.mono("test.mono"))
+                .contextWrite(SignalTracer.withTrace("req-3", false));
+
+        StepVerifier.create(failing).verifyError(IllegalStateException.class);
+        StepVerifier.create(succeeding).expectNext("a").verifyComplete();
+
+        assertEquals(1, appender.list.size());
+        assertEquals("test.mono | onError(boom)", appender.list.get(0).getFormattedMessage());
+        assertEquals("boom", appender.list.get(0).getThrowableProxy().getMessage());
+    }
+
+    @Test
+    void endpointCanBeSwitchedAtRuntime() {
+        var traced = Mono.just("a")
+                .transform(signalTracer.mono("test.mono"))
+                .contextWrite(SignalTracer.withTrace("req-4", false));
+
+        signalTracer.setMode("test.mono", SignalTracer.TraceMode.ALL);
+        StepVerifier.create(traced).expectNext("a").verifyComplete();
+        var tracedEvents = appender.list.size();
+
+        signalTracer.setMode("test.mono", SignalTracer.TraceMode.OFF);
+        StepVerifier.create(traced).expectNext("a").verifyComplete();
+
+        assertEquals(3, tracedEvents);
+        assertEquals(tracedEvents, appender.list.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.reactivespring.util;
+
+import com.reactivespring.deadline.Deadline;
+import com.reactivespring.tracing.SignalTracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void concurrentCallsForSameKeyShareOneSubscription() {
+        var subscriptions = new AtomicInteger();
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        var call = upstream.asFlux().doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        var first = singleFlight.executeMany("1", () -> call).collectList();
+        var second = singleFlight.executeMany("1", () -> call).collectList();
+
+        StepVerifier.create(first.zipWith(second))
+                .then(() -> {
+                    upstream.tryEmitNext("a");
+                    upstream.tryEmitNext("b");
+                    upstream.tryEmitComplete();
+                })
+                .assertNext(results -> {
+                    assertEquals(2, results.getT1().size());
+                    assertEquals(results.getT1(), results.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, subscriptions.get());
+        assertEquals(1, meterRegistry.get("singleflight.calls").tag("result", "executed").counter().count());
+        assertEquals(1, meterRegistry.get("singleflight.calls").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void upstreamIsCancelledOnlyWhenLastSubscriberCancels() {
+        var cancelled = new AtomicInteger();
+        var call = Flux.<String>never().doOnCancel(cancelled::incrementAndGet);
+
+        var first = singleFlight.executeMany("2", () -> call).subscribe();
+        var second = singleFlight.executeMany("2", () -> call).subscribe();
+
+        first.dispose();
+        assertEquals(0, cancelled.get());
+
+        second.dispose();
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    void completedCallIsNotReusedForLaterSubscribers() {
+        var subscriptions = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(singleFlight.execute("3", () -> Mono.fromSupplier(() -> "v" + subscriptions.incrementAndGet())))
+                    .assertNext(value -> assertTrue(value.startsWith("v")))
+                    .verifyComplete();
+        }
+
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void sharedCallDoesNotRunWithTheFirstCallersContext() {
+        var call = Flux.deferContextual(contextView -> Flux.just(contextView.getOrDefault("caller", "none")));
+
+        StepVerifier.create(singleFlight.executeMany("4", () -> call).contextWrite(Context.of("caller", "first")))
+                .expectNext("none")
+                .verifyComplete();
+    }
+
+    @Test
+    void sharedCallRunsWithTheFirstCallersDeadlineAndRequestId() {
+        var deadline = Deadline.after(Duration.ofSeconds(1));
+        var call = Flux.deferContextual(contextView -> Flux.just(
+                Deadline.from(contextView).map(callDeadline -> callDeadline == deadline ? "first" : "other").orElse("none"),
+                SignalTracer.requestId(contextView).orElse("none"),
+                contextView.getOrDefault("caller", "none")));
+
+        StepVerifier.create(singleFlight.executeMany("5", () -> call)
+                        .contextWrite(Deadline.into(deadline))
+                        .contextWrite(SignalTracer.withTrace("request-5", false))
+                        .contextWrite(Context.of("caller", "first")))
+                .expectNext("first", "request-5", "none")
+                .verifyComplete();
+    }
+}
@@ -1,5 +1,6 @@
 package com.learnreactiveprogramming.service;
 
+import com.learnreactiveprogramming.util.SignalTracer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple4;
@@ -14,27 +15,27 @@ public class FluxAndMonoGeneratorService {
     public Flux<String> namesFlux() {
         return Flux
                 .fromIterable(List.of("Alex", "Ben", "Chloe"))
-                .log();
+                .transform(SignalTracer.flux("namesFlux"));
     }
 
     public Mono<String> nameMono() {
         return Mono.
                 just("Alex")
-                .log();
+                .transform(SignalTracer.mono("nameMono"));
     }
 
     public Flux<String> namesFluxMap() {
         return Flux
                 .fromIterable(List.of("Alex", "Ben", "Chloe"))
                 .map(String::toUpperCase)
-                .log();
+                .transform(SignalTracer.flux("namesFluxMap"));
     }
 
     public Flux<String> namesFluxFilter(int nameLength) {
         return Flux
                 .fromIterable(List.of("Alex", "Ben", "Chloe"))
                 .filter(name -> name.length() == nameLength)
-                .log();
+                .transform(SignalTracer.flux("namesFluxFilter"));
     }
 
     public Flux<String> namesFluxFilterFlatMap(int nameLength) {
@@ -43,7 +44,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() == nameLength)
                 .flatMap(this::splitString)
-                .log();
+                .transform(SignalTracer.flux("namesFluxFilterFlatMap"));
     }
 
     private Flux<String> splitString(String str) {
@@ -58,7 +59,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > nameLength)
                 .flatMap(this::splitStringWithDelay)
-                .log();
+                .transform(SignalTracer.flux("namesFluxFilterFlatMapAsync"));
     }
 
     private Flux<String> splitStringWithDelay(String str) {
@@ -75,7 +76,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > nameLength)
                 .concatMap(this::splitStringWithDelay)
-                .log();
+                .transform(SignalTracer.flux("namesFluxConcatMap"));
     }
 
     public Mono<List<String>> namesMonoFlatMap(int nameLength) {
@@ -84,7 +85,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(s -> s.length() > nameLength)
                 .flatMap(this::splitStringMono)
-                .log();
+                .transform(SignalTracer.mono("namesMonoFlatMap"));
     }
 
     private Mono<List<String>> splitStringMono(String name) {
@@ -99,7 +100,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(s -> s.length() > nameLength)
                 .flatMapMany(this::splitString)
-                .log();
+                .transform(SignalTracer.flux("namesMonoFlatMapMany"));
     }
 
     public Flux<String> namesFluxTransform(int nameLength) {
@@ -112,7 +113,7 @@ public class FluxAndMonoGeneratorService {
                 .fromIterable(List.of("Alex", "Ben", "Chloe"))
                 .transform(filterMap)
                 .flatMap(this::splitString)
-                .log();
+                .transform(SignalTracer.flux("namesFluxTransform"));
     }
 
     public Flux<String> namesFluxWithDefault(int nameLength) {
@@ -120,7 +121,7 @@ public class FluxAndMonoGeneratorService {
                 .fromIterable(List.of("Alex", "Ben", "Chloe"))
                 .filter(name -> name.length() == nameLength)
                 .defaultIfEmpty("default")
-                .log();
+                .transform(SignalTracer.flux("namesFluxWithDefault"));
     }
 
     public Flux<String> namesFluxWithSwitchIfEmpty(int nameLength) {
@@ -130,21 +131,21 @@ public class FluxAndMonoGeneratorService {
                 .fromIterable(List.of("Alex", "Ben", "Chloe"))
                 .filter(name -> name.length() == nameLength)
                 .switchIfEmpty(defaultFlux)
-                .log();
+                .transform(SignalTracer.flux("namesFluxWithSwitchIfEmpty"));
     }
 
     public Flux<String> exploreConcat() {
         var abcFlux = Flux.just("a", "b", "c");
         var defFlux = Flux.just("d", "e", "f");
 
-        return Flux.concat(abcFlux, defFlux).log();
+        return Flux.concat(abcFlux, defFlux).transform(SignalTracer.flux("exploreConcat"));
     }
 
     public Flux<String> exploreConcatWith() {
         var abcFlux = Flux.just("a", "b", "c");
         var defFlux = Flux.just("d", "e", "f");
 
-        return abcFlux.concatWith(defFlux).log();
+        return abcFlux.concatWith(defFlux).transform(SignalTracer.flux("exploreConcatWith"));
     }
 
     public Flux<String> exploreMerge() {
@@ -156,7 +157,7 @@ public class FluxAndMonoGeneratorService {
                 .just("d", "e", "f")
                 .delayElements(Duration.ofMillis(125));
 
-        return Flux.merge(abcFlux, defFlux).log();
+        return Flux.merge(abcFlux, defFlux).transform(SignalTracer.flux("exploreMerge"));
     }
 
     public Flux<String> exploreMergeWith() {
@@ -168,14 +169,14 @@ public class FluxAndMonoGeneratorService {
                 .just("d", "e", "f")
                 .delayElements(Duration.ofMillis(125));
 
-        return abcFlux.mergeWith(defFlux).log();
+        return abcFlux.mergeWith(defFlux).transform(SignalTracer.flux("exploreMergeWith"));
     }
 
     public Flux<String> exploreMergeSequential() {
         var abcFlux = Flux.just("a", "b", "c");
         var defFlux = Flux.just("d", "e", "f");
 
-        return Flux.mergeSequential(abcFlux, defFlux).log();
+        return Flux.mergeSequential(abcFlux, defFlux).transform(SignalTracer.flux("exploreMergeSequential"));
     }
 
     public Flux<String> exploreZip() {
@@ -184,7 +185,7 @@ public class FluxAndMonoGeneratorService {
 
         return Flux
                 .zip(abcFlux, defFlux, (first, second) -> first.toUpperCase() + second.toUpperCase())
-                .log();
+                .transform(SignalTracer.flux("exploreZip"));
     }
 
     public Flux<String> exploreZip_1() {
@@ -197,7 +198,7 @@ public class FluxAndMonoGeneratorService {
                 .zip(abcFlux, defFlux, _123Flux, _456Flux)
                 .map(t4 -> t4.getT1() + t4.getT2() + t4.getT3() + t4.getT4())
                 .map(String::toUpperCase)
-                .log();
+                .transform(SignalTracer.flux("exploreZip_1"));
     }
 
     public static void main(String[] args) {
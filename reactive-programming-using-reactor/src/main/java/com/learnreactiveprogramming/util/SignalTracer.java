@@ -0,0 +1,38 @@
+package com.learnreactiveprogramming.util;
+
+import com.reactivespring.tracing.SignalTracing;
+import com.reactivespring.tracing.SignalTracing.TraceMode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Function;
+
+// the services' tracing behind static methods, configured through the tracing.sampleRate and tracing.defaultMode
+// system properties
+public final class SignalTracer {
+
+    private static final SignalTracing SIGNAL_TRACING = new SignalTracing(
+            Integer.getInteger("tracing.sampleRate", 100),
+            TraceMode.valueOf(System.getProperty("tracing.defaultMode", "SAMPLED")),
+            Map.of());
+
+    private SignalTracer() {
+    }
+
+    public static <T> Function<Mono<T>, Mono<T>> mono(String endpoint) {
+        return SIGNAL_TRACING.mono(endpoint);
+    }
+
+    public static <T> Function<Flux<T>, Flux<T>> flux(String endpoint) {
+        return SIGNAL_TRACING.flux(endpoint);
+    }
+
+    public static TraceMode getMode(String endpoint) {
+        return SIGNAL_TRACING.getMode(endpoint);
+    }
+
+    public static void setMode(String endpoint, TraceMode mode) {
+        SIGNAL_TRACING.setMode(endpoint, mode);
+    }
+}
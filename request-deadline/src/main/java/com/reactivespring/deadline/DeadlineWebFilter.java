@@ -0,0 +1,56 @@
+package com.reactivespring.deadline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@Slf4j
+public class DeadlineWebFilter implements WebFilter {
+
+    // remaining budget of the caller in milliseconds, sent by the movies-service for every downstream attempt
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    // the budget bounds the time until the response starts, a body that is already streaming is left to finish
+    // because cutting it off mid-body would only hand the caller a broken response
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var requestTimeout = requestTimeout(exchange.getRequest());
+        if (requestTimeout == null) return chain.filter(exchange);
+        if (requestTimeout.isZero() || requestTimeout.isNegative()) return deadlineExceeded(exchange);
+
+        var response = exchange.getResponse();
+        var beforeCommit = Mono.delay(requestTimeout)
+                .flatMap(tick -> response.isCommitted() ? Mono.never() : Mono.just(tick));
+        return chain.filter(exchange)
+                .timeout(beforeCommit)
+                .onErrorResume(TimeoutException.class, ex -> response.isCommitted() ?
+                        Mono.error(ex) :
+                        deadlineExceeded(exchange));
+    }
+
+    private Duration requestTimeout(ServerHttpRequest request) {
+        var header = request.getHeaders().getFirst(TIMEOUT_HEADER);
+        if (header == null) return null;
+        try {
+            return Duration.ofMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring invalid {} header : {}", TIMEOUT_HEADER, header);
+            return null;
+        }
+    }
+
+    private Mono<Void> deadlineExceeded(ServerWebExchange exchange) {
+        var response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,30 @@
+package com.reactivespring.tracing;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Component
+public class RequestTracingWebFilter implements WebFilter {
+
+    private final SignalTracer signalTracer;
+
+    public RequestTracingWebFilter(SignalTracer signalTracer) {
+        this.signalTracer = signalTracer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var requestId = exchange.getRequest().getHeaders().getFirst(SignalTracer.REQUEST_ID_HEADER);
+        if (!StringUtils.hasText(requestId)) requestId = UUID.randomUUID().toString();
+        exchange.getResponse().getHeaders().set(SignalTracer.REQUEST_ID_HEADER, requestId);
+
+        return chain.filter(exchange)
+                .contextWrite(signalTracer.newTrace(requestId));
+    }
+}
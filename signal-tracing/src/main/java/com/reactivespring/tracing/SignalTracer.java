@@ -0,0 +1,45 @@
+package com.reactivespring.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// trace modes start from tracing.endpoints and can be switched at runtime through /actuator/tracing
+@Component
+@Endpoint(id = "tracing")
+public class SignalTracer extends SignalTracing {
+
+    public SignalTracer(@Value("${tracing.sampleRate:100}") int sampleRate,
+                        @Value("${tracing.defaultMode:SAMPLED}") TraceMode defaultMode,
+                        Environment environment) {
+        super(sampleRate, defaultMode, Binder.get(environment)
+                .bind("tracing.endpoints", Bindable.mapOf(String.class, TraceMode.class))
+                .orElseGet(Map::of));
+    }
+
+    @ReadOperation
+    @Override
+    public TraceMode getMode(@Selector String endpoint) {
+        return super.getMode(endpoint);
+    }
+
+    @WriteOperation
+    @Override
+    public void setMode(@Selector String endpoint, TraceMode mode) {
+        super.setMode(endpoint, mode);
+    }
+
+    @ReadOperation
+    @Override
+    public Map<String, TraceMode> getModes() {
+        return super.getModes();
+    }
+}
@@ -0,0 +1,128 @@
+package com.reactivespring.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// the tracing shared by the services and the reactor exercises, without any Spring; the services expose it as the
+// SignalTracer bean
+@Slf4j
+public class SignalTracing {
+
+    public enum TraceMode {
+        OFF,
+        ERRORS,
+        SAMPLED,
+        ALL
+    }
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    // context keys; REQUEST_ID is also the MDC key used by the log pattern
+    public static final String REQUEST_ID = "requestId";
+    public static final String SAMPLED = "sampled";
+
+    private final int sampleRate;
+    private final TraceMode defaultMode;
+    private final Map<String, TraceMode> modes;
+
+    // one request in sampleRate has all of its signals traced, errors are traced regardless
+    public SignalTracing(int sampleRate, TraceMode defaultMode, Map<String, TraceMode> modes) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.defaultMode = defaultMode;
+        this.modes = new ConcurrentHashMap<>(modes);
+    }
+
+    // replacement for .log(): unsampled subscriptions only pay for the context lookup and an error hook
+    public <T> Function<Mono<T>, Mono<T>> mono(String endpoint) {
+        return mono -> Mono.deferContextual(contextView -> {
+            var mode = getMode(endpoint);
+            if (mode == TraceMode.OFF) return mono;
+            var requestId = requestId(contextView).orElse(null);
+            if (!isTraced(mode, contextView)) {
+                return mono.doOnError(ex -> trace(endpoint, requestId, "{} | onError({})", ex));
+            }
+            return mono
+                    .doOnSubscribe(subscription -> trace(endpoint, requestId, "{} | onSubscribe()", null))
+                    .doOnEach(signal -> traceSignal(endpoint, requestId, signal))
+                    .doOnCancel(() -> trace(endpoint, requestId, "{} | cancel()", null));
+        });
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> flux(String endpoint) {
+        return flux -> Flux.deferContextual(contextView -> {
+            var mode = getMode(endpoint);
+            if (mode == TraceMode.OFF) return flux;
+            var requestId = requestId(contextView).orElse(null);
+            if (!isTraced(mode, contextView)) {
+                return flux.doOnError(ex -> trace(endpoint, requestId, "{} | onError({})", ex));
+            }
+            return flux
+                    .doOnSubscribe(subscription -> trace(endpoint, requestId, "{} | onSubscribe()", null))
+                    .doOnEach(signal -> traceSignal(endpoint, requestId, signal))
+                    .doOnCancel(() -> trace(endpoint, requestId, "{} | cancel()", null));
+        });
+    }
+
+    // the sampling decision is made once per request so that a sampled request is traced end to end
+    public Function<Context, Context> newTrace(String requestId) {
+        return withTrace(requestId, ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    public static Function<Context, Context> withTrace(String requestId, boolean sampled) {
+        return context -> context.put(REQUEST_ID, requestId).put(SAMPLED, sampled);
+    }
+
+    public static Optional<String> requestId(ContextView contextView) {
+        return contextView.getOrEmpty(REQUEST_ID);
+    }
+
+    public TraceMode getMode(String endpoint) {
+        return modes.getOrDefault(endpoint, defaultMode);
+    }
+
+    public void setMode(String endpoint, TraceMode mode) {
+        modes.put(endpoint, mode);
+    }
+
+    public Map<String, TraceMode> getModes() {
+        return new TreeMap<>(modes);
+    }
+
+    // calls made outside of a request carry no decision and are sampled on their own
+    private boolean isTraced(TraceMode mode, ContextView contextView) {
+        if (mode == TraceMode.ALL) return true;
+        if (mode != TraceMode.SAMPLED) return false;
+        return contextView.getOrDefault(SAMPLED, ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    private void traceSignal(String endpoint, String requestId, Signal<?> signal) {
+        if (signal.isOnNext()) trace(endpoint, requestId, "{} | onNext({})", signal.get());
+        else if (signal.isOnComplete()) trace(endpoint, requestId, "{} | onComplete()", null);
+        else if (signal.isOnError()) trace(endpoint, requestId, "{} | onError({})", signal.getThrowable());
+    }
+
+    // the formats are constants and the endpoint a log argument, so nothing is built per signal; the MDC is only set
+    // around the call, the async appender copies it before handing the event off. Errors pass the Throwable last so
+    // the stack trace is logged along with the message
+    private void trace(String endpoint, String requestId, String signalFormat, Object argument) {
+        if (requestId != null) MDC.put(REQUEST_ID, requestId);
+        try {
+            if (argument instanceof Throwable) log.error(signalFormat, endpoint, ((Throwable) argument).getMessage(), argument);
+            else log.info(signalFormat, endpoint, argument);
+        } finally {
+            if (requestId != null) MDC.remove(REQUEST_ID);
+        }
+    }
+}